@@ -1,12 +1,31 @@
 package com.stephen.base;
 
+import com.stephen.utils.PerfRecorder;
 import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 基础页面操作类 / Base Page Action Class
@@ -18,18 +37,125 @@ import java.time.Duration;
  * Serves as the base class for page-specific Operation subclasses.
  * Encapsulates common WebDriver operations and element interactions.
  * </p>
+ *
+ * <p>
+ * 通过DriverContextTracker跟踪当前frame路径和元素状态，跳过不会产生任何变化的命令。<br>
+ * Tracks the current frame path and element states through DriverContextTracker,
+ * skipping commands that cannot change anything.
+ * </p>
+ *
+ * <p>
+ * 元素操作遇到元素过期或点击被遮挡时在同一会话中重新定位元素并重试这一步（见withElement()）。<br>
+ * Element operations relocate the element and retry the step on the same session when the element went stale or
+ * the click was intercepted (see withElement()).
+ * </p>
  */
 public class BaseAction {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("BaseAction.class");
+
+    /**
+     * 清除localStorage和sessionStorage的脚本 / Script clearing localStorage and sessionStorage
+     */
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { localStorage.clear(); sessionStorage.clear(); } catch (ignored) {}";
+
+    /**
+     * 页面原地重置脚本 / In-place page reset script
+     *
+     * <p>
+     * 参数：arguments[0]为需要清空的文本元素CSS选择器数组，arguments[1]为页面地址。
+     * 页面已跳转到其他地址时直接返回false；否则把输入框、单选按钮、复选框和下拉框恢复为HTML中的默认值（状态变化的单选按钮、复选框会触发change事件），
+     * 清空文本元素的内容、class和行内样式，清除localStorage和sessionStorage，最后校验重置结果（包括没有残留的Cookie）。
+     * 页面自身的定时器不会被取消。<br>
+     * Arguments: arguments[0] is an array of CSS selectors of text elements to clear, arguments[1] is the page URL.
+     * Returns false right away when the page has navigated elsewhere; otherwise restores inputs, radio buttons,
+     * checkboxes and selects to their HTML defaults (radio buttons and checkboxes whose state changed fire a change
+     * event), clears content, class and inline style of the text elements, clears localStorage and sessionStorage,
+     * then verifies the result (including that no cookie is left). The page's own timers are not cancelled.
+     * </p>
+     */
+    private static final String RESET_SCRIPT =
+            "var selectors = arguments[0], url = arguments[1];"
+            + "if (url && location.href.split('#')[0] !== url) { return false; }"
+            + "var fields = document.querySelectorAll('input, textarea, select'), changed = [], i, j;"
+            + "for (i = 0; i < fields.length; i++) {"
+            + "  var f = fields[i];"
+            + "  if (f.type === 'radio' || f.type === 'checkbox') {"
+            + "    if (f.checked !== f.defaultChecked) { f.checked = f.defaultChecked; changed.push(f); }"
+            + "  } else if (f.tagName === 'SELECT') {"
+            + "    for (j = 0; j < f.options.length; j++) { f.options[j].selected = f.options[j].defaultSelected; }"
+            + "  } else if (f.type !== 'button' && f.type !== 'submit' && f.type !== 'reset') {"
+            + "    f.value = f.defaultValue;"
+            + "  }"
+            + "}"
+            + "for (i = 0; i < changed.length; i++) {"
+            + "  if (changed[i].checked || changed[i].type === 'checkbox') {"
+            + "    changed[i].dispatchEvent(new Event('change', {bubbles: true}));"
+            + "  }"
+            + "}"
+            + "for (i = 0; i < selectors.length; i++) {"
+            + "  var e = document.querySelector(selectors[i]);"
+            + "  if (e) { e.textContent = ''; e.className = ''; e.removeAttribute('style'); }"
+            + "}"
+            + "try { localStorage.clear(); sessionStorage.clear(); } catch (ignored) {}"
+            + "for (i = 0; i < fields.length; i++) {"
+            + "  var v = fields[i];"
+            + "  if ((v.type === 'radio' || v.type === 'checkbox') ? v.checked !== v.defaultChecked"
+            + "      : (v.tagName !== 'SELECT' && v.value !== v.defaultValue)) { return false; }"
+            + "}"
+            + "for (i = 0; i < selectors.length; i++) {"
+            + "  var r = document.querySelector(selectors[i]);"
+            + "  if (r && r.textContent !== '') { return false; }"
+            + "}"
+            + "var storageEmpty = true;"
+            + "try { storageEmpty = localStorage.length === 0 && sessionStorage.length === 0; } catch (ignored) {}"
+            + "return storageEmpty && document.cookie === '';";
+
+    /**
+     * 文档标记脚本 / Document marker scripts
+     *
+     * <p>
+     * 在当前文档和顶层文档上写入或校验arguments[0]标记；跨域frame无法访问顶层文档时返回false。<br>
+     * Stamp or verify the arguments[0] marker on the current and the top-level document; return false when a
+     * cross-origin frame cannot reach the top-level document.
+     * </p>
+     */
+    private static final String STAMP_MARKER_SCRIPT =
+            "try { document.__contextMarker = arguments[0]; window.top.document.__contextMarker = arguments[0];"
+            + " return true; } catch (e) { return false; }";
+    private static final String CHECK_MARKER_SCRIPT =
+            "try { return document.__contextMarker === arguments[0]"
+            + " && window.top.document.__contextMarker === arguments[0]; } catch (e) { return false; }";
+
+    //瞬时异常的最大重试次数 / Maximum retries on transient exceptions
+    private static final int MAX_RETRIES = Integer.getInteger("action.retry.max", 2);
+
+    //首次重试前的退避时间及退避上限（毫秒） / Backoff before first retry and backoff cap (milliseconds)
+    private static final long RETRY_BACKOFF_MS = Long.getLong("action.retry.backoffMs", 100L);
+    private static final long MAX_RETRY_BACKOFF_MS = Long.getLong("action.retry.maxBackoffMs", 1000L);
+
+    //各定位器的重试次数 / Retry counts per locator
+    private static final Map<String, AtomicLong> RETRY_COUNTS = new ConcurrentHashMap<>();
 
     private final WebDriver driver;
 
+    private final DriverContextTracker tracker;
+
     /**
      * 构造函数 / Constructor
      *
+     * <p>
+     * 页面操作类通常在打开页面后实例化，因此已记录的上下文状态会被重置为未知。<br>
+     * Operation classes are usually instantiated after a page is opened, so recorded context state is reset to unknown.
+     * </p>
+     *
      * @param driver WebDriver实例 / WebDriver instance
      */
     public BaseAction(WebDriver driver) {
         this.driver = driver;
+        this.tracker = DriverContextTracker.of(driver);
+        this.tracker.reset();
     }
 
     /**
@@ -65,24 +191,23 @@ public class BaseAction {
      */
     public void input(By by, String text) {
         String inputText = (text == null) ? "" : text;
-        WebElement element = findEle(by);
-        element.sendKeys(inputText);
+        withElementRun("input", by, element -> element.sendKeys(inputText));
     }
 
     /**
      * 清除文本 / Clear Text
      *
      * <p>
-     * 清除输入框内的文本
+     * 清除输入框内的文本。输入框的值可能被页面脚本或浏览器自动填充修改，因此总是发送清除命令
      * <br>
      * Clears the text content in an input field element.
+     * The value may be changed by page scripts or browser autofill, so the clear command is always sent.
      * </p>
      *
      * @param by 元素定位器（不能为null） / Element locator (cannot be null)
      */
     public void clearText(By by) {
-        WebElement element = findEle(by);
-        element.clear();
+        withElementRun("clearText", by, element -> element.clear());
     }
 
     /**
@@ -97,36 +222,97 @@ public class BaseAction {
      * @param by 元素定位器 (不能为null) / Element locator (cannot be null)
      */
     public void click(By by) {
-        WebElement element = findEle(by);
-        element.click();
+        withElementRun("click", by, element -> element.click());
+        tracker.afterClick();
     }
 
     /**
      * 切换到指定的frame / Switches to the specified frame
      *
      * <p>
-     * 使用frame的ID或name进行切换。
+     * 使用frame的ID或name进行切换（相对于当前所在的上下文）。
      * <br>
-     * Uses frame ID or name for switching.
+     * Uses frame ID or name for switching (relative to the current context).
      * </p>
      *
      * @param frame 目标frame的ID值或name值 / Target frame ID or name
      */
     public void switchToFrame(String frame){
         driver.switchTo().frame(frame);
+        tracker.enterFrame(frame);
+        if (tracker.getFramePath() != null) {
+            stampDocument();
+        }
+    }
+
+    /**
+     * 按路径切换到嵌套的frame / Switches to a nested frame by path
+     *
+     * <p>
+     * 从主文档开始按顺序逐层进入frame。已处于目标frame时只发送一条校验文档的命令；
+     * 当前frame路径是目标路径的前缀时，只进入剩余的frame；目标是当前frame的上一层时，只发送一次切换到父frame的命令。
+     * 校验发现文档已变化（页面已跳转）时从主文档重新进入。
+     * <br>
+     * Enters frames one level at a time starting from the main document. Only one document check command is sent
+     * when already in the target frame; when the current frame path is a prefix of the target, only the remaining
+     * frames are entered; when the target is the parent of the current frame, a single switch-to-parent command is
+     * sent. When the check finds a different document (the page navigated), frames are entered from the main document.
+     * </p>
+     *
+     * @param frames 从主文档开始的各层frame的ID值或name值 / IDs or names of each frame level starting from main document
+     */
+    public void switchToFramePath(String... frames){
+        List<String> target = Arrays.asList(frames);
+        List<String> current = tracker.getFramePath();
+        //处于frame中时，页面跳转会使记录的路径失效；处于主文档时跳转后仍在主文档
+        //Inside a frame, navigation invalidates the recorded path; in the main document it stays the main document
+        if (current != null && !current.isEmpty() && !isSameDocument()) {
+            current = null;
+        }
+        if (target.equals(current)) {
+            tracker.recordElided(target.isEmpty() ? 1 : target.size());
+            return;
+        }
+
+        if (current != null && current.size() == target.size() + 1 && current.subList(0, target.size()).equals(target)) {
+            driver.switchTo().parentFrame();
+            tracker.recordElided(Math.max(target.size() - 1, 0));
+            tracker.setFramePath(target);
+            stampFramePath(target);
+            return;
+        }
+
+        int start = 0;
+        if (current != null && current.size() < target.size() && target.subList(0, current.size()).equals(current)) {
+            start = current.size();
+            tracker.recordElided(start == 0 ? 1 : start);
+        } else {
+            driver.switchTo().defaultContent();
+        }
+        for (int i = start; i < target.size(); i++) {
+            driver.switchTo().frame(target.get(i));
+        }
+        tracker.setFramePath(target);
+        stampFramePath(target);
     }
 
     /**
      * 从frame切换回默认content / Switches back to default content from frame
      *
      * <p>
-     * 将上下文切换回主文档。
+     * 将上下文切换回主文档，已确认处于主文档时不发送命令。
      * <br>
-     * Switches context back to main document.
+     * Switches context back to main document, sends no command when already known to be in main document.
      * </p>
      */
     public void switchToDefaultContent(){
+        List<String> current = tracker.getFramePath();
+        if (current != null && current.isEmpty()) {
+            tracker.recordElided(1);
+            return;
+        }
         driver.switchTo().defaultContent();
+        tracker.setFramePath(new ArrayList<String>());
     }
 
     /**
@@ -142,24 +328,306 @@ public class BaseAction {
      * @return 获取到的文本内容 / Retrieved text content
      */
     public String getText(By by) {
-        return findEle(by).getText();
+        return withElement("getText", by, element -> element.getText());
     }
 
     /**
      * 勾选复选框（如果未勾选） / Checks checkbox (if not already selected)
      *
      * <p>
-     * 如果复选框已勾选，则不执行任何操作。
+     * 如果复选框已勾选，则不执行任何操作；已确认勾选且仍是同一文档时，只发送一条校验文档的命令。
      * <br>
-     * Does nothing if checkbox is already selected.
+     * Does nothing if checkbox is already selected; only one document check command is sent when it is already
+     * known to be selected in the same document.
      * </p>
      *
      * @param by 复选框元素定位器 (不能为null) / Checkbox element locator (cannot be null)
      */
     public void selectCheckbox(By by) {
-        WebElement element = findEle(by);
-        if (!element.isSelected()) {
-            element.click();
+        if (tracker.isKnownSelected(by) && isSameDocument()) {
+            //以一条校验命令代替定位和isSelected两条命令 / One check command replaces the find and the isSelected command
+            tracker.recordElided(1);
+            return;
+        }
+        boolean clicked = withElement("selectCheckbox", by, element -> {
+            if (!element.isSelected()) {
+                element.click();
+                return true;
+            }
+            return false;
+        });
+        if (clicked) {
+            tracker.afterClick();
+        }
+        tracker.markSelected(by);
+        stampDocument();
+    }
+
+    /**
+     * 确认已记录的状态仍属于当前文档 / Confirms recorded state still belongs to the current document
+     *
+     * <p>
+     * 文档标记不存在（页面已跳转或刷新）时使已记录的状态失效。<br>
+     * Invalidates the recorded state when the document marker is gone (the page navigated or reloaded).
+     * </p>
+     *
+     * @return 仍是记录状态时的文档时返回true / true if still the document the state was recorded on
+     */
+    private boolean isSameDocument() {
+        String marker = tracker.getMarker();
+        if (marker == null) {
+            return false;
+        }
+        Object same;
+        try {
+            same = ((JavascriptExecutor) driver).executeScript(CHECK_MARKER_SCRIPT, marker);
+        } catch (WebDriverException e) {
+            same = false;
+        }
+        if (!Boolean.TRUE.equals(same)) {
+            tracker.reset();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在记录状态的文档上写入标记 / Stamps a marker on the document the state was recorded on
+     *
+     * <p>
+     * 每个文档只写入一次；写入失败时不设置标记，之后不会跳过任何命令。<br>
+     * Stamped once per document; when stamping fails no marker is set and nothing is skipped afterwards.
+     * </p>
+     */
+    private void stampDocument() {
+        if (tracker.getMarker() != null) {
+            return;
+        }
+        String marker = UUID.randomUUID().toString();
+        try {
+            if (Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(STAMP_MARKER_SCRIPT, marker))) {
+                tracker.setMarker(marker);
+            }
+        } catch (WebDriverException e) {
+            LOGGER.debug("写入文档标记失败/Fail to stamp document marker: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 进入frame后写入文档标记，主文档无需标记 / Stamps the document after entering frames, the main document needs none
+     */
+    private void stampFramePath(List<String> path) {
+        if (!path.isEmpty()) {
+            stampDocument();
+        }
+    }
+
+    /**
+     * 获取当前浏览器实例对象跳过的命令数量 / Gets number of commands skipped for current WebDriver instance
+     *
+     * @return 跳过的命令数量 / Skipped command count
+     */
+    public long getElidedCommandCount() {
+        return tracker.getElidedCount();
+    }
+
+    /**
+     * 执行并记录页面操作耗时 / Executes a page operation and records its duration
+     *
+     * <p>
+     * 阶段名称为action.&lt;htmlunit|chrome&gt;.&lt;页面操作类&gt;.&lt;操作&gt;(&lt;定位器&gt;)，由PerformanceBaselineReporter与基线比较。
+     * 元素操作的耗时包含元素等待和重试（见withElement()）。<br>
+     * Stage name is action.&lt;htmlunit|chrome&gt;.&lt;operation class&gt;.&lt;action&gt;(&lt;locator&gt;), compared
+     * against the baseline by PerformanceBaselineReporter. For element operations the duration includes the element
+     * wait and retries (see withElement()).
+     * </p>
+     *
+     * @param action 操作名称 / Action name
+     * @param by 元素定位器（页面级操作为null） / Element locator (null for page-level operations)
+     * @param step 操作 / Operation
+     * @param <T> 操作结果类型 / Operation result type
+     * @return 操作结果 / Operation result
+     */
+    protected <T> T timed(String action, By by, Supplier<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            PerfRecorder.record("action." + (driver instanceof HtmlUnitDriver ? "htmlunit." : "chrome.")
+                    + getClass().getSimpleName() + "." + action
+                    + (by == null ? "" : "(" + by + ")"), nanos);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 定位元素并执行元素操作，记录耗时 / Locates an element and runs an element operation, recording its duration
+     *
+     * <p>
+     * 操作抛出元素过期（StaleElementReferenceException）或点击被遮挡（ElementClickInterceptedException）时，
+     * 重新定位元素后重试操作。这两种异常在命令生效前抛出，因此重试不会重复提交；
+     * 元素等待超时和其他异常（包括点击后等待页面加载超时，此时点击可能已经生效）直接抛出，不会重新点击。
+     * 最多重试action.retry.max次（默认2），退避时间从action.retry.backoffMs（默认100毫秒）开始翻倍，
+     * 不超过action.retry.maxBackoffMs（默认1000毫秒）。每个定位器的重试次数记录在getRetryCounts()中。<br>
+     * Relocates the element and retries the operation when it throws StaleElementReferenceException or
+     * ElementClickInterceptedException. Both are raised before the command takes effect, so a retry cannot submit
+     * twice; an element wait timeout and any other exception (including a page load timeout after a click, when the
+     * click may already have taken effect) are rethrown and nothing is clicked again.
+     * Retries at most action.retry.max times (2 by default), backoff starts at action.retry.backoffMs (100 ms by
+     * default) and doubles up to action.retry.maxBackoffMs (1000 ms by default). Retries per locator are counted
+     * in getRetryCounts().
+     * </p>
+     *
+     * @param action 操作名称 / Action name
+     * @param by 元素定位器 / Element locator
+     * @param use 对定位到的元素执行的操作 / Operation on the located element
+     * @param <T> 操作结果类型 / Operation result type
+     * @return 操作结果 / Operation result
+     */
+    protected <T> T withElement(String action, By by, Function<WebElement, T> use) {
+        return timed(action, by, () -> {
+            long backoff = RETRY_BACKOFF_MS;
+            for (int attempt = 0; ; attempt++) {
+                WebElement element = findEle(by);
+                try {
+                    return use.apply(element);
+                } catch (StaleElementReferenceException | ElementClickInterceptedException e) {
+                    if (attempt >= MAX_RETRIES) {
+                        throw e;
+                    }
+                    RETRY_COUNTS.computeIfAbsent(by.toString(), key -> new AtomicLong()).incrementAndGet();
+                    LOGGER.warn("元素操作未生效，{}毫秒后重新定位并重试/Element operation not applied, "
+                            + "relocating and retrying in {} ms: {} {} ({})",
+                            backoff, backoff, action, by, e.getClass().getSimpleName());
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+                }
+            }
+        });
+    }
+
+    /**
+     * 定位元素并执行无返回值的元素操作，记录耗时 / Locates an element and runs an element operation without result, recording its duration
+     *
+     * @param action 操作名称 / Action name
+     * @param by 元素定位器 / Element locator
+     * @param use 对定位到的元素执行的操作 / Operation on the located element
+     */
+    protected void withElementRun(String action, By by, Consumer<WebElement> use) {
+        withElement(action, by, element -> {
+            use.accept(element);
+            return null;
+        });
+    }
+
+    /**
+     * 获取各定位器的重试次数 / Gets retry counts per locator
+     *
+     * @return 定位器到重试次数的映射（按定位器排序） / Map of locator to retry count (sorted by locator)
+     */
+    public static Map<String, Long> getRetryCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : RETRY_COUNTS.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * 原地重置页面 / Resets page in place
+     *
+     * <p>
+     * 先删除全部Cookie（包括脚本无法清除的HttpOnly的Cookie），再通过一次脚本调用把页面恢复到初始状态（见getPageUrl()和getResetTextSelectors()），
+     * 用于数据行之间复用同一个页面，代替重新打开浏览器和页面。重置校验失败或执行异常时，
+     * 删除全部Cookie、清除localStorage和sessionStorage后重新打开页面地址作为兜底，避免上一条数据的登录态和存储影响下一条数据。
+     * 注意：页面自身的定时器不会被取消，上一条数据触发的延迟跳转要由下一次重置时的地址校验发现，
+     * 依赖延迟跳转的页面不应启用原地重置。
+     * <br>
+     * First deletes all cookies (including HttpOnly ones a script cannot clear), then restores the page to its initial
+     * state with a single script call (see getPageUrl() and getResetTextSelectors()), so consecutive data rows can
+     * reuse the same page instead of relaunching the browser and reloading the page.
+     * Falls back to deleting all cookies, clearing localStorage and sessionStorage and navigating to the page URL when
+     * the reset check fails or a command throws, so the previous row's login state and storage cannot leak into the
+     * next row.
+     * Note: the page's own timers are not cancelled, so a delayed navigation triggered by the previous row is only
+     * caught by the URL check of the next reset; pages relying on delayed navigation should not reset in place.
+     * </p>
+     *
+     * @return 原地重置成功时返回true，使用了重新打开页面兜底时返回false / true if reset in place, false if the navigation fallback was used
+     */
+    public boolean resetPage() {
+        String url = getPageUrl();
+        boolean reset;
+        try {
+            Object result = timed("resetPage", null, () -> {
+                driver.manage().deleteAllCookies();
+                return ((JavascriptExecutor) driver)
+                        .executeScript(RESET_SCRIPT, Arrays.asList(getResetTextSelectors()), url);
+            });
+            reset = Boolean.TRUE.equals(result);
+        } catch (WebDriverException e) {
+            LOGGER.warn("原地重置页面异常/Fail to reset page in place", e);
+            reset = false;
+        }
+
+        //重置后状态未知 / State is unknown after reset
+        tracker.reset();
+        if (!reset) {
+            if (url == null) {
+                throw new IllegalStateException("页面重置失败且未声明页面地址/Page reset failed and no page URL declared: "
+                        + getClass().getSimpleName());
+            }
+            clearBrowserState();
+            driver.get(url);
+        }
+        return reset;
+    }
+
+    /**
+     * 删除全部Cookie并清除当前页面源的存储 / Deletes all cookies and clears storage of the current origin
+     */
+    private void clearBrowserState() {
+        driver.manage().deleteAllCookies();
+        try {
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+        } catch (WebDriverException e) {
+            //页面不可执行脚本时（如about:blank）跳过，重新打开页面不受影响 / Skipped when the page cannot run scripts (e.g. about:blank), reopening is unaffected
+            LOGGER.warn("清除页面存储异常/Fail to clear page storage", e);
+        }
+    }
+
+    /**
+     * 页面地址 / Page URL
+     *
+     * <p>
+     * 子类覆盖此方法声明页面地址，用于校验当前页面以及重置失败时重新打开页面，默认为null（不校验地址）。<br>
+     * Subclasses override this to declare the page URL, used to verify the current page and to reopen
+     * the page when reset fails. null by default (URL not verified).
+     * </p>
+     *
+     * @return 页面地址 / Page URL
+     */
+    protected String getPageUrl() {
+        return null;
+    }
+
+    /**
+     * 需要清空的文本元素 / Text elements to clear
+     *
+     * <p>
+     * 子类覆盖此方法声明重置时需要清空的文本元素（如提示信息）的CSS选择器，默认为空。<br>
+     * Subclasses override this to declare CSS selectors of text elements (e.g. messages) to clear on reset,
+     * empty by default.
+     * </p>
+     *
+     * @return CSS选择器数组 / CSS selector array
+     */
+    protected String[] getResetTextSelectors() {
+        return new String[0];
+    }
+}
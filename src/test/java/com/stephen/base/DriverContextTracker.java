@@ -0,0 +1,170 @@
+package com.stephen.base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 浏览器上下文跟踪器 / Driver Context Tracker
+ *
+ * <p>
+ * 为每个浏览器实例对象记录当前所在的frame路径和最近观察到的元素状态（复选框已勾选），
+ * 供BaseAction跳过不会产生任何变化的协议命令，并统计被跳过的命令数量。
+ * 状态无法确定时（例如页面可能已跳转）一律视为未知，未知状态下不会跳过任何命令。<br>
+ * Records the current frame path and recently observed element states (checkbox selected)
+ * per WebDriver instance, so BaseAction can skip protocol commands that cannot change anything, and counts
+ * the skipped commands. Whenever state cannot be known (e.g. the page may have navigated) it is treated
+ * as unknown, and nothing is skipped in unknown state.
+ * </p>
+ *
+ * <p>
+ * 记录状态后，BaseAction在当前文档和顶层文档上写入标记；跳过命令前先校验标记仍然存在，
+ * 因此BaseAction之外的页面跳转（driver.get()、navigate()或页面脚本的location跳转）产生的新文档不会沿用旧状态。<br>
+ * After recording state, BaseAction stamps a marker on the current and the top-level document; before skipping
+ * commands it verifies the marker is still there, so a new document from navigation outside BaseAction
+ * (driver.get(), navigate() or a script redirect via location) never inherits stale state.
+ * </p>
+ */
+public class DriverContextTracker {
+
+    //各浏览器实例对象的跟踪器 / Trackers of each WebDriver instance
+    private static final Map<WebDriver, DriverContextTracker> TRACKERS =
+            Collections.synchronizedMap(new WeakHashMap<WebDriver, DriverContextTracker>());
+
+    //所有浏览器实例对象累计跳过的命令数量 / Commands skipped across all WebDriver instances
+    private static final AtomicLong TOTAL_ELIDED = new AtomicLong();
+
+    //当前frame路径，空列表表示主文档，null表示未知 / Current frame path, empty list is main document, null is unknown
+    private List<String> framePath;
+
+    //已确认勾选的复选框 / Checkboxes known to be selected
+    private final Map<By, Boolean> selected = new HashMap<>();
+
+    //当前浏览器实例对象跳过的命令数量 / Commands skipped for this WebDriver instance
+    private final AtomicLong elided = new AtomicLong();
+
+    //写入文档的标记，null表示尚未写入 / Marker stamped on the document, null when not stamped yet
+    private String marker;
+
+    private DriverContextTracker() {
+
+    }
+
+    /**
+     * 获取浏览器实例对象的跟踪器 / Gets tracker of WebDriver instance
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @return 跟踪器 / Tracker
+     */
+    public static DriverContextTracker of(WebDriver driver) {
+        synchronized (TRACKERS) {
+            DriverContextTracker tracker = TRACKERS.get(driver);
+            if (tracker == null) {
+                tracker = new DriverContextTracker();
+                TRACKERS.put(driver, tracker);
+            }
+            return tracker;
+        }
+    }
+
+    /**
+     * 使浏览器实例对象的已知状态失效 / Invalidates known state of WebDriver instance
+     *
+     * <p>
+     * 在BaseAction之外进行页面跳转、刷新等操作后调用。<br>
+     * Call after navigating, refreshing etc. outside of BaseAction.
+     * </p>
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     */
+    public static void invalidate(WebDriver driver) {
+        of(driver).reset();
+    }
+
+    /**
+     * 获取所有浏览器实例对象累计跳过的命令数量 / Gets commands skipped across all WebDriver instances
+     *
+     * @return 跳过的命令数量 / Skipped command count
+     */
+    public static long getTotalElidedCount() {
+        return TOTAL_ELIDED.get();
+    }
+
+    /**
+     * 获取当前浏览器实例对象跳过的命令数量 / Gets commands skipped for this WebDriver instance
+     *
+     * @return 跳过的命令数量 / Skipped command count
+     */
+    public long getElidedCount() {
+        return elided.get();
+    }
+
+    synchronized void reset() {
+        framePath = null;
+        marker = null;
+        selected.clear();
+    }
+
+    synchronized String getMarker() {
+        return marker;
+    }
+
+    synchronized void setMarker(String marker) {
+        this.marker = marker;
+    }
+
+    synchronized List<String> getFramePath() {
+        return framePath == null ? null : new ArrayList<>(framePath);
+    }
+
+    synchronized void setFramePath(List<String> path) {
+        framePath = new ArrayList<>(path);
+        //切换上下文后元素状态和文档标记不再适用 / Element states and document marker no longer apply after switching context
+        marker = null;
+        selected.clear();
+    }
+
+    synchronized void enterFrame(String frame) {
+        if (framePath != null) {
+            framePath.add(frame);
+        }
+        marker = null;
+        selected.clear();
+    }
+
+    /**
+     * 点击后页面或frame可能已跳转 / Page or frame may have navigated after a click
+     *
+     * <p>
+     * 主文档中的点击不会改变所在上下文（仍是主文档）；frame中的点击可能导致frame被移除，因此frame路径变为未知。<br>
+     * A click in the main document keeps the context (still main document); a click inside a frame may
+     * remove that frame, so the frame path becomes unknown.
+     * </p>
+     */
+    synchronized void afterClick() {
+        if (framePath != null && !framePath.isEmpty()) {
+            framePath = null;
+        }
+        selected.clear();
+    }
+
+    synchronized boolean isKnownSelected(By by) {
+        return Boolean.TRUE.equals(selected.get(by));
+    }
+
+    synchronized void markSelected(By by) {
+        selected.put(by, Boolean.TRUE);
+    }
+
+    void recordElided(int commands) {
+        elided.addAndGet(commands);
+        TOTAL_ELIDED.addAndGet(commands);
+    }
+}
@@ -0,0 +1,67 @@
+package com.stephen.daemon;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * 子优先类加载器 / Child-First Class Loader
+ *
+ * <p>
+ * 指定包中的类优先从本加载器的路径加载（找不到时才委托父加载器），其余类都委托父加载器，
+ * 使TestDaemon每次重新编译后加载测试类、页面操作类和页面元素类的新版本，同时共享父加载器中的工具类及其缓存。<br>
+ * Classes in the given packages are loaded from this loader's path first (delegating to the parent only when not
+ * found), all other classes are delegated to the parent, so TestDaemon loads new versions of test, operation and
+ * page classes after each recompilation while sharing the utility classes and their caches of the parent loader.
+ * </p>
+ */
+class ChildFirstClassLoader extends URLClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    //优先由本加载器加载的包前缀 / Package prefixes loaded by this loader first
+    private final String[] childFirstPackages;
+
+    /**
+     * 构造函数 / Constructor
+     *
+     * @param urls 类路径 / Class path
+     * @param parent 父加载器 / Parent loader
+     * @param childFirstPackages 优先由本加载器加载的包名 / Package names loaded by this loader first
+     */
+    ChildFirstClassLoader(URL[] urls, ClassLoader parent, String... childFirstPackages) {
+        super(urls, parent);
+        this.childFirstPackages = childFirstPackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isChildFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                try {
+                    loaded = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    loaded = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private boolean isChildFirst(String name) {
+        for (String prefix : childFirstPackages) {
+            if (name.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
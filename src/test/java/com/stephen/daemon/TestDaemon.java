@@ -0,0 +1,389 @@
+package com.stephen.daemon;
+
+import com.stephen.utils.ChangeBasedSelector;
+import com.stephen.utils.DriverUtils;
+import com.stephen.utils.IdleDriverPool;
+import com.stephen.utils.PerfRecorder;
+import com.stephen.utils.RandomRows;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 常驻测试守护进程 / Persistent Test Daemon
+ *
+ * <p>
+ * 长期运行的测试进程，在多次本地运行之间保持JVM、已解析的测试数据（GetTestData的sheet缓存）、已解析的浏览器驱动
+ * 以及若干空闲浏览器（IdleDriverPool，默认2个，启动时预热daemon.prewarm个，默认1个）。
+ * TestDaemonClient通过本机端口（daemon.port，默认47123）提交要运行的测试，守护进程按testng.xml运行
+ * （由ChangeBasedSelector只选出所提交的测试及其依赖）并把每条结果实时返回。<br>
+ * A long-lived test process that keeps the JVM, parsed test data (GetTestData sheet cache), the resolved browser
+ * driver and a few idle browsers (IdleDriverPool, 2 by default, daemon.prewarm warmed at startup, 1 by default)
+ * between local runs. TestDaemonClient submits the tests to run through a local port (daemon.port, 47123 by default),
+ * the daemon runs testng.xml (with ChangeBasedSelector selecting only the submitted tests and their dependencies)
+ * and streams every result back.
+ * </p>
+ *
+ * <p>
+ * 每次运行前，若testcases、operation、page包的源码有修改，则在进程内重新编译并用新的子优先类加载器加载，无需重启；
+ * base、utils包的修改需要重启守护进程。守护进程中关闭浏览器前不再延迟（driver.quitDelayMs默认为0）。
+ * 重新编译后关闭上一次的类加载器并删除其target/daemon-classes/run-*目录。在JRE上运行时无法重新编译，源码修改后的请求直接失败。<br>
+ * Before each run, sources of the testcases, operation and page packages are recompiled in process when modified
+ * and loaded by a new child-first class loader, no restart needed; changes to the base and utils packages need a
+ * daemon restart. Inside the daemon browsers are closed without delay (driver.quitDelayMs defaults to 0).
+ * After a recompilation the previous class loader is closed and its target/daemon-classes/run-* directory deleted.
+ * On a JRE nothing can be recompiled, so requests fail once sources have been modified.
+ * </p>
+ *
+ * <p>
+ * 每次运行前清除上一次运行留下的进程内状态：PerfRecorder的统计、DriverUtils.cookies和未取完的RandomRows迭代器，
+ * 使每次运行的结果与单独运行mvn test一致。<br>
+ * Before each run, in-process state left by the previous run is cleared: PerfRecorder statistics,
+ * DriverUtils.cookies and unfinished RandomRows iterators, so every run behaves like a standalone mvn test.
+ * </p>
+ *
+ * <p>
+ * 用法 / Usage:<br>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt<br>
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) com.stephen.daemon.TestDaemon [port]<br>
+ * java -cp target/test-classes com.stephen.daemon.TestDaemonClient TestLogin.testLogin
+ * </p>
+ */
+public class TestDaemon {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("TestDaemon.class");
+
+    //默认端口 / Default port
+    public static final int DEFAULT_PORT = 47123;
+
+    //停止守护进程的请求 / Request to stop the daemon
+    public static final String STOP = "STOP";
+
+    //结果行前缀 / Result line prefixes
+    public static final String PASS = "PASS";
+    public static final String FAIL = "FAIL";
+    public static final String SKIP = "SKIP";
+    public static final String ERROR = "ERROR";
+    public static final String DONE = "DONE";
+
+    //每次运行前重新编译并重新加载的包 / Packages recompiled and reloaded before each run
+    private static final String[] RELOADABLE = {"com.stephen.testcases", "com.stephen.operation", "com.stephen.page"};
+
+    //需要重启守护进程才能生效的包 / Packages that need a daemon restart to take effect
+    private static final String[] SHARED = {"com.stephen.base", "com.stephen.utils"};
+
+    private final File sourceRoot;
+    private final File suiteFile;
+    private final long startedAt = System.currentTimeMillis();
+
+    //当前的测试类加载器及其对应的源码修改时间 / Current test class loader and the source modification time it reflects
+    private ClassLoader testClassLoader;
+    private long compiledAt;
+
+    //重新编译得到的类加载器及其编译输出目录，使用类路径中的测试类时为null / Loader of the recompiled classes and its compile output, null when using class path test classes
+    private ChildFirstClassLoader compiledLoader;
+    private File testClassesDir;
+
+    private TestDaemon(File sourceRoot, File suiteFile) {
+        this.sourceRoot = sourceRoot;
+        this.suiteFile = suiteFile;
+    }
+
+    /**
+     * 启动守护进程 / Starts the daemon
+     *
+     * @param args 端口（可选） / Port (optional)
+     * @throws IOException 无法监听端口时抛出 / Thrown when the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        //必须在DriverUtils等类初始化前设置 / Must be set before DriverUtils and friends are initialized
+        setDefault("driver.pool.idle", "2");
+        setDefault("driver.quitDelayMs", "0");
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("daemon.port", DEFAULT_PORT);
+        TestDaemon daemon = new TestDaemon(new File(System.getProperty("select.sourceRoot", "src/test/java")),
+                new File(System.getProperty("daemon.suite", "testng.xml")));
+        daemon.prewarm(Integer.getInteger("daemon.prewarm", 1));
+        daemon.serve(port);
+    }
+
+    /**
+     * 预先启动空闲浏览器 / Starts idle browsers ahead of time
+     */
+    private void prewarm(int count) {
+        List<WebDriver> drivers = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(count, IdleDriverPool.MAX_IDLE); i++) {
+                drivers.add(DriverUtils.getDriver());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("预热浏览器失败/Fail to prewarm browsers", e);
+        }
+        for (WebDriver driver : drivers) {
+            DriverUtils.quitDriver(driver);
+        }
+    }
+
+    /**
+     * 依次处理客户端请求，直到收到停止请求 / Serves client requests one at a time until a stop request arrives
+     */
+    private void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            LOGGER.info("测试守护进程已启动/Test daemon listening on {}:{}", server.getInetAddress().getHostAddress(), port);
+            while (true) {
+                try (Socket socket = server.accept();
+                     BufferedReader in = new BufferedReader(
+                             new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                     PrintWriter out = new PrintWriter(
+                             new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                    String request = in.readLine();
+                    if (request == null) {
+                        continue;
+                    }
+                    if (STOP.equals(request.trim())) {
+                        out.println(DONE + " stopped");
+                        return;
+                    }
+                    run(request.trim(), out);
+                } catch (IOException e) {
+                    //发生异常时记录日志信息 / Logs error message when exception occurs
+                    LOGGER.error("处理客户端请求异常/Fail to serve client request", e);
+                }
+            }
+        } finally {
+            IdleDriverPool.shutdown();
+        }
+    }
+
+    /**
+     * 运行一次测试并返回结果 / Runs tests once and streams the results
+     *
+     * @param selection 逗号分隔的测试类或测试方法（类名.方法名），为空时运行全部 /
+     *                  Comma separated test classes or methods (Class.method), all tests when empty
+     * @param out 结果输出 / Result output
+     */
+    private void run(String selection, PrintWriter out) {
+        long start = System.currentTimeMillis();
+        StreamingListener listener = new StreamingListener(out);
+        String previousSelection = System.getProperty(ChangeBasedSelector.PROPERTY);
+        ClassLoader previousLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            ClassLoader loader = loadTestClasses(out);
+            resetRunState();
+            if (selection.isEmpty()) {
+                System.clearProperty(ChangeBasedSelector.PROPERTY);
+            } else {
+                System.setProperty(ChangeBasedSelector.PROPERTY, selection);
+            }
+            //TestNG通过上下文类加载器加载testng.xml中的测试类 / TestNG loads test classes of testng.xml through the context class loader
+            Thread.currentThread().setContextClassLoader(loader);
+
+            TestNG testng = new TestNG(false);
+            testng.setUseDefaultListeners(false);
+            testng.setOutputDirectory("target/daemon-output");
+            testng.setTestSuites(Collections.singletonList(suiteFile.getPath()));
+            testng.addListener(listener);
+            testng.run();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("运行测试异常/Fail to run tests", e);
+            for (String line : String.valueOf(e.getMessage()).split("\n")) {
+                out.println(ERROR + " " + line);
+            }
+            listener.failed++;
+        } finally {
+            Thread.currentThread().setContextClassLoader(previousLoader);
+            if (previousSelection == null) {
+                System.clearProperty(ChangeBasedSelector.PROPERTY);
+            } else {
+                System.setProperty(ChangeBasedSelector.PROPERTY, previousSelection);
+            }
+        }
+        out.println(DONE + " passed=" + listener.passed + " failed=" + listener.failed + " skipped=" + listener.skipped
+                + " millis=" + (System.currentTimeMillis() - start));
+    }
+
+    /**
+     * 清除上一次运行留下的进程内状态 / Clears in-process state left by the previous run
+     */
+    private static void resetRunState() {
+        PerfRecorder.reset();
+        RandomRows.clearActive();
+        DriverUtils.cookies = null;
+    }
+
+    /**
+     * 获取测试类加载器，源码有修改时重新编译 / Gets the test class loader, recompiling when sources were modified
+     */
+    private ClassLoader loadTestClasses(PrintWriter out) throws IOException {
+        List<File> sources = new ArrayList<>();
+        for (String pkg : RELOADABLE) {
+            sources.addAll(javaFiles(pkg));
+        }
+        long newest = newest(sources);
+        if (testClassLoader != null && newest <= compiledAt) {
+            return testClassLoader;
+        }
+
+        for (String pkg : SHARED) {
+            if (newest(javaFiles(pkg)) > startedAt) {
+                out.println("WARN " + pkg + "源码已修改，需重启守护进程才能生效/sources changed, restart the daemon to pick them up");
+            }
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            if (testClassLoader == null && newest <= startedAt) {
+                //源码在启动后未修改，类路径中的测试类仍是最新的 / Sources unchanged since startup, class path test classes are current
+                out.println("WARN 当前为JRE，无法重新编译，使用类路径中的测试类/Running on a JRE, using test classes from the class path");
+                testClassLoader = TestDaemon.class.getClassLoader();
+                compiledAt = newest;
+                return testClassLoader;
+            }
+            throw new IOException("当前为JRE，无法重新编译已修改的源码，请使用JDK启动守护进程，或执行mvn test-compile后重启守护进程"
+                    + "/Running on a JRE, modified sources cannot be recompiled: start the daemon with a JDK, "
+                    + "or run mvn test-compile and restart the daemon");
+        }
+
+        File output = new File("target/daemon-classes/run-" + System.currentTimeMillis());
+        if (!output.mkdirs()) {
+            throw new IOException("无法创建目录/Cannot create directory " + output.getPath());
+        }
+        StringWriter errors = new StringWriter();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-encoding", "UTF-8", "-nowarn",
+                    "-classpath", System.getProperty("java.class.path"), "-d", output.getPath());
+            if (!compiler.getTask(errors, files, null, options, null, files.getJavaFileObjectsFromFiles(sources)).call()) {
+                throw new IOException("编译失败/Compilation failed:\n" + errors);
+            }
+        }
+        ChildFirstClassLoader previousLoader = compiledLoader;
+        File previousDir = testClassesDir;
+        compiledLoader = new ChildFirstClassLoader(new URL[]{output.toURI().toURL()},
+                TestDaemon.class.getClassLoader(), RELOADABLE);
+        testClassLoader = compiledLoader;
+        testClassesDir = output;
+        compiledAt = newest;
+        discard(previousLoader, previousDir);
+        return testClassLoader;
+    }
+
+    /**
+     * 关闭不再使用的类加载器并删除其编译输出目录 / Closes a class loader no longer used and deletes its compile output
+     *
+     * @param loader 上一次的类加载器，为null时不处理 / Previous class loader, nothing done when null
+     * @param directory 上一次的编译输出目录 / Previous compile output
+     */
+    private static void discard(ChildFirstClassLoader loader, File directory) {
+        if (loader == null) {
+            return;
+        }
+        try {
+            loader.close();
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.warn("关闭上一次的类加载器异常/Fail to close previous class loader", e);
+        }
+        try {
+            Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.warn("删除上一次的测试类目录异常/Fail to delete previous test classes directory: " + directory, e);
+        }
+    }
+
+    private List<File> javaFiles(String pkg) {
+        File[] files = new File(sourceRoot, pkg.replace('.', '/')).listFiles((dir, name) -> name.endsWith(".java"));
+        return files == null ? new ArrayList<File>() : Arrays.asList(files);
+    }
+
+    private static long newest(List<File> files) {
+        long newest = 0;
+        for (File file : files) {
+            newest = Math.max(newest, file.lastModified());
+        }
+        return newest;
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * 把每条测试结果实时写回客户端 / Streams every test result back to the client
+     */
+    private static class StreamingListener implements ITestListener {
+        private final PrintWriter out;
+        private int passed;
+        private int failed;
+        private int skipped;
+
+        StreamingListener(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onTestSuccess(ITestResult result) {
+            passed++;
+            out.println(PASS + " " + describe(result));
+        }
+
+        @Override
+        public void onTestFailure(ITestResult result) {
+            failed++;
+            out.println(FAIL + " " + describe(result) + " " + result.getThrowable());
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            skipped++;
+            out.println(SKIP + " " + describe(result));
+        }
+
+        private static String describe(ITestResult result) {
+            return result.getTestClass().getRealClass().getSimpleName() + "." + result.getName()
+                    + Arrays.toString(result.getParameters()) + " " + (result.getEndMillis() - result.getStartMillis()) + "ms";
+        }
+    }
+}
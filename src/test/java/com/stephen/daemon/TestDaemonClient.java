@@ -0,0 +1,78 @@
+package com.stephen.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 测试守护进程客户端 / Test Daemon Client
+ *
+ * <p>
+ * 把要运行的测试类或测试方法（类名.方法名，多个参数或逗号分隔，为空时运行testng.xml中的全部测试）提交给TestDaemon，
+ * 实时输出结果；存在失败的测试或运行错误时以状态1退出，无法连接守护进程时以状态2退出。--stop停止守护进程。
+ * 只依赖JDK，类路径只需target/test-classes。<br>
+ * Submits test classes or methods (Class.method, several arguments or comma separated, all tests of testng.xml
+ * when empty) to TestDaemon and prints the results as they arrive; exits with status 1 when a test failed or the run
+ * errored, and with status 2 when the daemon cannot be reached. --stop stops the daemon.
+ * Depends on the JDK only, target/test-classes is all the class path it needs.
+ * </p>
+ *
+ * <p>
+ * 用法 / Usage:<br>
+ * java -cp target/test-classes com.stephen.daemon.TestDaemonClient [-Ddaemon.port=47123] [--stop | tests...]
+ * </p>
+ */
+public class TestDaemonClient {
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private TestDaemonClient() {
+
+    }
+
+    /**
+     * 命令行入口 / Command line entry
+     *
+     * @param args 要运行的测试，或--stop / Tests to run, or --stop
+     * @throws IOException 与守护进程通信失败时抛出 / Thrown when communicating with the daemon fails
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("daemon.port", TestDaemon.DEFAULT_PORT);
+        String request = args.length == 1 && "--stop".equals(args[0]) ? TestDaemon.STOP : String.join(",", args);
+
+        boolean failed = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out.println(request);
+            String line;
+            while ((line = in.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith(TestDaemon.FAIL) || line.startsWith(TestDaemon.ERROR)) {
+                    failed = true;
+                }
+                if (line.startsWith(TestDaemon.DONE)) {
+                    break;
+                }
+            }
+        } catch (ConnectException e) {
+            System.err.println("无法连接测试守护进程/Cannot reach test daemon on port " + port
+                    + ", start it with com.stephen.daemon.TestDaemon");
+            System.exit(2);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+}
@@ -2,6 +2,7 @@ package com.stephen.operation;
 
 import com.stephen.base.BaseAction;
 import com.stephen.page.CookieCheckPage;
+import com.stephen.utils.DriverUtils;
 import org.openqa.selenium.WebDriver;
 
 /**
@@ -50,4 +51,32 @@ public class CookieCheckPageOperation extends BaseAction {
     public String getCookieCheckResult() {
         return super.getText(CookieCheckPage.CHECK_COOKIE_RESULT);
     }
-}
\ No newline at end of file
+
+    /**
+     * 页面地址 / Page URL
+     * <p>
+     * 用于原地重置页面时校验当前页面，以及重置失败时重新打开页面。<br>
+     * Used to verify the current page on in-place reset, and to reopen the page when reset fails.
+     * </p>
+     *
+     * @return 登录态检查页地址 / Cookie check page URL
+     */
+    @Override
+    protected String getPageUrl() {
+        return DriverUtils.BASE_URL + CookieCheckPage.PATH;
+    }
+
+    /**
+     * 重置时需要清空的文本元素 / Text elements to clear on reset
+     * <p>
+     * 登录态检查结果（#result）。<br>
+     * Cookie check result (#result).
+     * </p>
+     *
+     * @return CSS选择器数组 / CSS selector array
+     */
+    @Override
+    protected String[] getResetTextSelectors() {
+        return new String[]{"#result"};
+    }
+}
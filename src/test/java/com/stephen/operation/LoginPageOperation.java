@@ -2,6 +2,7 @@ package com.stephen.operation;
 
 import com.stephen.base.BaseAction;
 import com.stephen.page.LoginPage;
+import com.stephen.utils.DriverUtils;
 import org.openqa.selenium.WebDriver;
 
 /**
@@ -134,4 +135,32 @@ public class LoginPageOperation extends BaseAction {
     public void clearPassword() {
         super.clearText(LoginPage.PASSWORD);
     }
-}
\ No newline at end of file
+
+    /**
+     * 页面地址 / Page URL
+     * <p>
+     * 用于原地重置页面时校验当前页面，以及重置失败时重新打开页面。<br>
+     * Used to verify the current page on in-place reset, and to reopen the page when reset fails.
+     * </p>
+     *
+     * @return 注册登录页地址 / Login page URL
+     */
+    @Override
+    protected String getPageUrl() {
+        return DriverUtils.BASE_URL + LoginPage.PATH;
+    }
+
+    /**
+     * 重置时需要清空的文本元素 / Text elements to clear on reset
+     * <p>
+     * 注册或登录操作后的提示信息（#message）。<br>
+     * Message shown after registration or login (#message).
+     * </p>
+     *
+     * @return CSS选择器数组 / CSS selector array
+     */
+    @Override
+    protected String[] getResetTextSelectors() {
+        return new String[]{"#message"};
+    }
+}
@@ -22,6 +22,15 @@ public class CookieCheckPage {
 
     }
 
+    /**
+     * 登录态检查页地址路径 / Cookie check page URL path
+     * <p>
+     * 相对于被测应用根地址: /cookie_check<br>
+     * Relative to application base URL: /cookie_check
+     * </p>
+     */
+    public static final String PATH = "/cookie_check";
+
     /**
      * 登录态检查页标题文本 / Cookie check page title text
      * <p>
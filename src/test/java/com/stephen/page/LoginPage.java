@@ -22,6 +22,15 @@ public class LoginPage {
 
     }
 
+    /**
+     * 注册登录页地址路径 / Login page URL path
+     * <p>
+     * 相对于被测应用根地址: /login<br>
+     * Relative to application base URL: /login
+     * </p>
+     */
+    public static final String PATH = "/login";
+
     /**
      * 注册单选按钮 / Register radio button
      * <p>
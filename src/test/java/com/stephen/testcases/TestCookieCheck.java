@@ -1,16 +1,21 @@
 package com.stephen.testcases;
 
 import com.stephen.operation.CookieCheckPageOperation;
+import com.stephen.page.CookieCheckPage;
+import com.stephen.utils.DriverType;
 import com.stephen.utils.DriverUtils;
 import com.stephen.utils.GetTestData;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.Method;
+
 /**
  * 登录态检查相关的测试用例 / Login Status Check Test Cases
  * <p>
@@ -25,6 +30,9 @@ public class TestCookieCheck {
     //浏览器实例对象 / WebDriver instance
     WebDriver driver;
 
+    //浏览器实例对象的驱动类型 / Driver type of WebDriver instance
+    DriverType driverType;
+
     //登录态检查页面操作类实例对象 / Login status check page operation class instance
     public static CookieCheckPageOperation cookieCheckPageOperation;
 
@@ -34,15 +42,35 @@ public class TestCookieCheck {
      * 每个测试方法（每条测试用例）执行前都会执行一次，用于调用浏览器工具类的静态方法获取浏览器实例对象以及实例化登录态检查页面操作类的对象<br>
      * Executes before each test method (test case) to:
      * 1. Acquire WebDriver instance via DriverUtils
-     * 2. Instantiate CookieCheckPageOperation object
+     * 2. Instantiate CookieCheckPageOperation object<br>
+     * 启用页面重置（-Dpage.reset=true）时，从第二次开始复用浏览器并原地重置页面<br>
+     * With page reset enabled (-Dpage.reset=true), later runs reuse the browser and reset the page in place<br>
+     * 浏览器类型由DriverType.forMethod()根据测试方法的组决定（lightweight组使用HtmlUnit）<br>
+     * The browser type is chosen by DriverType.forMethod() from the test method's groups (HtmlUnit for the lightweight group)
      * </p>
+     *
+     * @param method 将要执行的测试方法 / Test method about to run
      */
     @BeforeMethod
-    public void getDriver() {
+    public void getDriver(Method method) {
+        DriverType type = DriverType.forMethod(method);
+
+        //启用页面重置时，后续数据行复用浏览器，只原地重置页面
+        //With page reset enabled, subsequent data rows reuse the browser and only reset the page in place
+        if (DriverUtils.PAGE_RESET && driver != null) {
+            if (type == driverType) {
+                cookieCheckPageOperation.resetPage();
+                return;
+            }
+            //测试方法需要其他类型的浏览器时关闭复用的浏览器 / Quits the reused browser when the test method needs another browser type
+            DriverUtils.quitDriver(driver);
+        }
+
         //调用浏览器工具类的静态方法，获取浏览器对象，并打开登录态检查页
         //Invokes DriverUtils to get WebDriver instance and open login status check page
-        driver = DriverUtils.getDriver();
-        driver.get("http://127.0.0.1:8080/cookie_check");
+        driver = DriverUtils.getDriver(type);
+        driverType = type;
+        driver.get(DriverUtils.BASE_URL + CookieCheckPage.PATH);
 
         //每个测试方法（每条测试用例）执行前都需要实例化一个登录态检查页面操作类的对象
         //Instantiates CookieCheckPageOperation before each test case
@@ -52,13 +80,30 @@ public class TestCookieCheck {
     /**
      * AfterMethod特殊方法 / AfterMethod Special Method
      * <p>
-     * 每个测试方法（每条测试用例）执行后都会执行一次，用于调用浏览器工具类的静态方法关闭浏览器<br>
-     * Executes after each test method (test case) to close browser via DriverUtils.
+     * 每个测试方法（每条测试用例）执行后都会执行一次，用于调用浏览器工具类的静态方法关闭浏览器（启用页面重置时不关闭）<br>
+     * Executes after each test method (test case) to close browser via DriverUtils (kept open when page reset is enabled).
      * </p>
      */
     @AfterMethod
     public void quitDriver() {
-        DriverUtils.quitDriver(driver);
+        if (!DriverUtils.PAGE_RESET) {
+            DriverUtils.quitDriver(driver);
+        }
+    }
+
+    /**
+     * AfterClass特殊方法 / AfterClass Special Method
+     * <p>
+     * 启用页面重置（-Dpage.reset=true）时，所有测试方法执行完后才关闭复用的浏览器<br>
+     * With page reset enabled (-Dpage.reset=true), closes the reused browser after all test methods have run.
+     * </p>
+     */
+    @AfterClass(alwaysRun = true)
+    public void quitReusedDriver() {
+        if (DriverUtils.PAGE_RESET && driver != null) {
+            DriverUtils.quitDriver(driver);
+            driver = null;
+        }
     }
 
     /**
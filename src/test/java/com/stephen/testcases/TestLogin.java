@@ -1,16 +1,22 @@
 package com.stephen.testcases;
 
 import com.stephen.operation.LoginPageOperation;
+import com.stephen.page.LoginPage;
+import com.stephen.utils.DriverType;
 import com.stephen.utils.DriverUtils;
 import com.stephen.utils.GetTestData;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.Method;
+
 /**
  * 注册和登录相关的测试用例 / Registration and Login Test Cases
  * <p>
@@ -25,6 +31,9 @@ public class TestLogin {
     //浏览器实例对象 / WebDriver instance
     WebDriver driver;
 
+    //浏览器实例对象的驱动类型 / Driver type of WebDriver instance
+    DriverType driverType;
+
     //登录页面操作类实例对象 / Login page operation class instance
     public static LoginPageOperation loginPageOperation;
 
@@ -34,15 +43,35 @@ public class TestLogin {
      * 每个测试方法（每条测试用例）执行前都会执行一次，用于调用浏览器工具类的静态方法获取浏览器实例对象以及实例化登录页面操作类的对象<br>
      * Executes before each test method (test case) to:
      * 1. Acquire WebDriver instance via DriverUtils
-     * 2. Instantiate LoginPageOperation object
+     * 2. Instantiate LoginPageOperation object<br>
+     * 启用页面重置（-Dpage.reset=true）时，从第二次开始复用浏览器并原地重置页面<br>
+     * With page reset enabled (-Dpage.reset=true), later runs reuse the browser and reset the page in place<br>
+     * 浏览器类型由DriverType.forMethod()根据测试方法的组决定（lightweight组使用HtmlUnit）<br>
+     * The browser type is chosen by DriverType.forMethod() from the test method's groups (HtmlUnit for the lightweight group)
      * </p>
+     *
+     * @param method 将要执行的测试方法 / Test method about to run
      */
     @BeforeMethod
-    public void getDriver() {
+    public void getDriver(Method method) {
+        DriverType type = DriverType.forMethod(method);
+
+        //启用页面重置时，后续数据行复用浏览器，只原地重置页面
+        //With page reset enabled, subsequent data rows reuse the browser and only reset the page in place
+        if (DriverUtils.PAGE_RESET && driver != null) {
+            if (type == driverType) {
+                loginPageOperation.resetPage();
+                return;
+            }
+            //测试方法需要其他类型的浏览器时关闭复用的浏览器 / Quits the reused browser when the test method needs another browser type
+            DriverUtils.quitDriver(driver);
+        }
+
         //调用浏览器工具类的静态方法，获取浏览器对象，并打开注册登录页
         //Invokes DriverUtils to get WebDriver instance and open registration/login page
-        driver = DriverUtils.getDriver();
-        driver.get("http://127.0.0.1:8080/login");
+        driver = DriverUtils.getDriver(type);
+        driverType = type;
+        driver.get(DriverUtils.BASE_URL + LoginPage.PATH);
 
         //每个测试方法（每条测试用例）执行前都需要实例化一个注册登录页面操作类的对象
         //Instantiates LoginPageOperation before each test case
@@ -52,13 +81,30 @@ public class TestLogin {
     /**
      * AfterMethod特殊方法 / AfterMethod Special Method
      * <p>
-     * 每个测试方法（每条测试用例）执行后都会执行一次，用于调用浏览器工具类的静态方法关闭浏览器<br>
-     * Executes after each test method (test case) to close browser via DriverUtils.
+     * 每个测试方法（每条测试用例）执行后都会执行一次，用于调用浏览器工具类的静态方法关闭浏览器（启用页面重置时不关闭）<br>
+     * Executes after each test method (test case) to close browser via DriverUtils (kept open when page reset is enabled).
      * </p>
      */
     @AfterMethod
     public void quitDriver() {
-        DriverUtils.quitDriver(driver);
+        if (!DriverUtils.PAGE_RESET) {
+            DriverUtils.quitDriver(driver);
+        }
+    }
+
+    /**
+     * AfterClass特殊方法 / AfterClass Special Method
+     * <p>
+     * 启用页面重置（-Dpage.reset=true）时，所有测试方法执行完后才关闭复用的浏览器<br>
+     * With page reset enabled (-Dpage.reset=true), closes the reused browser after all test methods have run.
+     * </p>
+     */
+    @AfterClass(alwaysRun = true)
+    public void quitReusedDriver() {
+        if (DriverUtils.PAGE_RESET && driver != null) {
+            DriverUtils.quitDriver(driver);
+            driver = null;
+        }
     }
 
     /**
@@ -69,14 +115,26 @@ public class TestLogin {
      * Tests registration functionality with parameters from Excel via DataProvider.
      * (@Test annotation specifies DataProvider and its class).
      * </p>
+     * <p>
+     * 注册不依赖浏览器渲染，也不产生后续测试使用的Cookie，因此属于lightweight组，未指定driver.type时使用HtmlUnit运行。<br>
+     * Registration does not depend on browser rendering and yields no cookies used by later tests, so it belongs to
+     * the lightweight group and runs on HtmlUnit unless driver.type is set.
+     * </p>
      * @param username DataProvider读取到的账号测试数据 / Username from DataProvider
      * @param password DataProvider读取到的密码测试数据 / Password from DataProvider
      * @param confirmPassword DataProvider读取到的确认密码测试数据 / Confirm password from DataProvider
      * @param expectedResult DataProvider读取到的期望结果测试数据（用于断言） / Expected result for assertions
      */
-    @Test(groups = "Login", priority = 1,dataProvider = "RegisterData", dataProviderClass = GetTestData.class)
+    @Test(groups = {"Login", DriverType.LIGHTWEIGHT_GROUP}, priority = 1,
+            dataProvider = "RegisterData", dataProviderClass = GetTestData.class)
     public void testRegister(String username, String password, String confirmPassword, String expectedResult) {
 
+        //确认lightweight组的测试确实运行在HtmlUnit上 / Verifies that a lightweight test really runs on HtmlUnit
+        if (driverType == DriverType.HTMLUNIT) {
+            Assert.assertTrue(driver instanceof HtmlUnitDriver,
+                    "lightweight测试未使用HtmlUnit/Lightweight test did not get HtmlUnit: " + driver.getClass().getName());
+        }
+
         //调用sleep()方法实现的暂停仅供调试时观察效果，实际执行可根据脚本执行效率提升等需要删除掉sleep()方法
         //Sleep pauses are for debugging only, remove for better execution efficiency
         try {
@@ -0,0 +1,217 @@
+package com.stephen.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 浏览器上下文池 / Browser Context Pool
+ *
+ * <p>
+ * 只启动一个宿主Chrome进程和一个chromedriver进程，每个测试通过CDP Target.createBrowserContext创建一个独立的
+ * 浏览器上下文（类似隐身窗口），再在宿主的chromedriver服务上以debuggerAddress方式附加一个新会话并切换到该上下文的窗口，
+ * 因此每个测试既不启动浏览器，也不启动chromedriver。
+ * 各上下文的Cookie和存储相互隔离，因此getAllCookie/addAllCookie的语义保持不变。<br>
+ * Starts a single host Chrome process and a single chromedriver process. Each test gets an isolated
+ * (incognito-like) browser context created through CDP Target.createBrowserContext, and a new session attached via
+ * debuggerAddress on the host's chromedriver service that is switched to the context's window, so no test starts
+ * a browser or a chromedriver. Cookies and storage are isolated per context, so getAllCookie/addAllCookie
+ * semantics still hold.
+ * </p>
+ *
+ * <p>
+ * 宿主浏览器通过HttpTransport创建并由SessionWatchdog跟踪；每次创建上下文前检查宿主是否存活，
+ * 宿主已退出或被看门狗回收时重新启动。<br>
+ * The host browser is created through HttpTransport and tracked by SessionWatchdog; before each context is created
+ * the host is checked for liveness and restarted when it died or was reclaimed by the watchdog.
+ * </p>
+ */
+public class BrowserContextPool {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("BrowserContextPool.class");
+
+    //宿主Chrome浏览器实例对象 / Host Chrome WebDriver instance
+    private static ChromeDriver hostDriver;
+
+    //宿主的chromedriver服务，各上下文会话共用 / Host's chromedriver service, shared by all context sessions
+    private static ChromeDriverService hostService;
+
+    //宿主浏览器的浏览器级DevTools连接 / Browser-level DevTools connection of host browser
+    private static DevTools hostDevTools;
+
+    //宿主浏览器的调试地址 / Debugger address of host browser
+    private static String debuggerAddress;
+
+    //是否已注册关闭钩子 / Whether the shutdown hook is registered
+    private static boolean shutdownHookAdded;
+
+    //会话与其浏览器上下文ID的映射 / Mapping of sessions to their browser context IDs
+    private static final Map<WebDriver, String> CONTEXTS = new ConcurrentHashMap<>();
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private BrowserContextPool() {
+
+    }
+
+    /**
+     * 创建独立浏览器上下文会话 / Creates an isolated browser context session
+     *
+     * <p>
+     * 首次调用时启动宿主Chrome进程，之后每次调用只创建新的浏览器上下文和附加会话。<br>
+     * Starts the host Chrome process on first call, afterwards only creates a new browser context
+     * and an attached session.
+     * </p>
+     *
+     * @return 已切换到新上下文窗口的浏览器实例对象 / WebDriver instance switched to the new context window
+     */
+    public static WebDriver newContext() {
+        String address = startHost();
+
+        //创建浏览器上下文及其中的空白页 / Create browser context and a blank page inside it
+        Map<String, Object> contextParams = new HashMap<>();
+        contextParams.put("disposeOnDetach", false);
+        String contextId = (String) sendBrowserCommand("Target.createBrowserContext", contextParams)
+                .get("browserContextId");
+
+        Map<String, Object> targetParams = new HashMap<>();
+        targetParams.put("url", "about:blank");
+        targetParams.put("browserContextId", contextId);
+        String targetId = (String) sendBrowserCommand("Target.createTarget", targetParams).get("targetId");
+
+        //在宿主的chromedriver上附加会话（不启动新的Chrome和chromedriver进程），窗口句柄即为目标ID
+        //Attach a session on the host's chromedriver (no new Chrome or chromedriver process), window handles are target IDs
+        ChromeOptions options = new ChromeOptions();
+        options.setExperimentalOption("debuggerAddress", address);
+        WebDriver driver = HttpTransport.newSessionOn(hostService.getUrl(), options);
+        driver.switchTo().window(targetId);
+
+        CONTEXTS.put(driver, contextId);
+        return driver;
+    }
+
+    /**
+     * 释放浏览器上下文会话 / Releases a browser context session
+     *
+     * <p>
+     * 关闭上下文窗口、销毁浏览器上下文并断开附加会话，宿主Chrome进程继续运行。<br>
+     * Closes the context window, disposes the browser context and detaches the session.
+     * The host Chrome process keeps running.
+     * </p>
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @return 该会话由本池创建并已释放时返回true / true if the session was created by this pool and has been released
+     */
+    public static boolean release(WebDriver driver) {
+        String contextId = CONTEXTS.remove(driver);
+        if (contextId == null) {
+            return false;
+        }
+        try {
+            driver.close();
+            Map<String, Object> params = new HashMap<>();
+            params.put("browserContextId", contextId);
+            sendBrowserCommand("Target.disposeBrowserContext", params);
+        } catch (RuntimeException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("销毁浏览器上下文异常/Fail to dispose browser context", e);
+        } finally {
+            //附加的会话退出时不会关闭宿主浏览器 / Quitting an attached session does not close the host browser
+            driver.quit();
+        }
+        return true;
+    }
+
+    /**
+     * 启动宿主Chrome进程，宿主已失效时重新启动 / Starts host Chrome process, restarting it when it is no longer alive
+     *
+     * @return 宿主浏览器的调试地址 / Debugger address of host browser
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized String startHost() {
+        if (hostDriver != null && !isHostAlive()) {
+            LOGGER.warn("宿主浏览器已失效，重新启动/Host browser is gone, restarting it");
+            discardHost();
+        }
+        if (hostDriver == null) {
+            hostService = ChromeDriverService.createDefaultService();
+            hostDriver = HttpTransport.newChromeDriver(hostService, new ChromeOptions());
+            SessionWatchdog.register(hostDriver);
+            Map<String, Object> chromeOptions =
+                    (Map<String, Object>) hostDriver.getCapabilities().getCapability("goog:chromeOptions");
+            debuggerAddress = String.valueOf(chromeOptions.get("debuggerAddress"));
+
+            //不创建页面会话，命令直接发送到浏览器目标 / No page session is created, commands go to the browser target
+            hostDevTools = hostDriver.getDevTools();
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(BrowserContextPool::shutdown));
+                shutdownHookAdded = true;
+            }
+        }
+        return debuggerAddress;
+    }
+
+    /**
+     * 宿主浏览器是否存活 / Whether the host browser is alive
+     */
+    private static boolean isHostAlive() {
+        if (SessionWatchdog.isKilled(hostDriver)) {
+            return false;
+        }
+        try {
+            hostDriver.getWindowHandles();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 丢弃失效的宿主浏览器，限时退出并强制结束其进程树 / Discards a dead host, quitting within a time limit and killing its process tree
+     */
+    private static void discardHost() {
+        ChromeDriver driver = hostDriver;
+        hostDriver = null;
+        hostService = null;
+        hostDevTools = null;
+        debuggerAddress = null;
+        SessionWatchdog.unregister(driver);
+        SessionWatchdog.quit(driver);
+    }
+
+    /**
+     * 向宿主浏览器发送浏览器级CDP命令 / Sends a browser-level CDP command to host browser
+     *
+     * @param method CDP方法名 / CDP method name
+     * @param params CDP命令参数 / CDP command parameters
+     * @return CDP命令结果 / CDP command result
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized Map<String, Object> sendBrowserCommand(String method, Map<String, Object> params) {
+        return hostDevTools.send(new Command<Map<String, Object>>(method, params, Map.class));
+    }
+
+    /**
+     * 关闭宿主Chrome进程 / Shuts down host Chrome process
+     */
+    private static synchronized void shutdown() {
+        if (hostDriver != null) {
+            discardHost();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.stephen.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于变更的测试选择器 / Change-Based Test Selector
+ *
+ * <p>
+ * 通过-Dselect.changed启用，值为逗号分隔的变更列表（文件路径、类名或类名.成员名，
+ * 例如CookieCheckPage.CHECK_COOKIE_BUTTON），或git（使用相对于select.base（默认HEAD）的工作区变更）。
+ * 根据TestImpactIndex只运行受变更影响的测试方法，以及它们通过dependsOnGroups、dependsOnMethods声明的依赖；
+ * 变更涉及base、utils等共享代码或配置时运行全部测试。源码目录由select.sourceRoot指定（默认src/test/java）。
+ * 声明了参数select.exempt=true的测试集（如单元测试）不参与选择，总是完整运行。<br>
+ * Enabled with -Dselect.changed, whose value is a comma separated list of changes (file paths, class names or
+ * Class.member, e.g. CookieCheckPage.CHECK_COOKIE_BUTTON), or git (working tree changes relative to select.base,
+ * HEAD by default). Runs only the test methods affected according to TestImpactIndex, plus the dependencies they
+ * declare through dependsOnGroups and dependsOnMethods; all tests run when shared code such as base and utils or
+ * configuration changed. The source root is set by select.sourceRoot (src/test/java by default).
+ * Test sets declaring the parameter select.exempt=true (e.g. unit tests) are never filtered and always run in full.
+ * </p>
+ */
+public class ChangeBasedSelector implements IMethodInterceptor {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("ChangeBasedSelector.class");
+
+    //变更列表系统属性 / Changes system property
+    public static final String PROPERTY = "select.changed";
+
+    /**
+     * 不参与选择的测试集参数 / Parameter of test sets exempt from selection
+     */
+    public static final String EXEMPT_PARAMETER = "select.exempt";
+
+    /**
+     * 选择受变更影响的测试方法 / Selects test methods affected by the changes
+     *
+     * @param methods 待运行的测试方法 / Test methods to run
+     * @param context 测试上下文 / Test context
+     * @return 选中的测试方法（保持原有顺序） / Selected test methods (original order kept)
+     */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String changed = System.getProperty(PROPERTY);
+        if (changed == null || changed.trim().isEmpty()
+                || Boolean.parseBoolean(context.getCurrentXmlTest().getParameter(EXEMPT_PARAMETER))) {
+            return methods;
+        }
+
+        Set<String> affected;
+        try {
+            Collection<String> changes = "git".equalsIgnoreCase(changed.trim())
+                    ? TestImpactIndex.gitChanges(System.getProperty("select.base", "HEAD"))
+                    : Arrays.asList(changed.split(","));
+            TestImpactIndex index = TestImpactIndex.build(new File(System.getProperty("select.sourceRoot", "src/test/java")));
+            if (index.isFullRunRequired(changes)) {
+                LOGGER.info("变更涉及共享代码或配置，运行全部测试/Changes touch shared code or configuration, running all tests: {}",
+                        changes);
+                return methods;
+            }
+            affected = index.affectedTests(changes);
+        } catch (IOException e) {
+            //发生异常时记录日志信息并运行全部测试 / Logs error message and runs all tests when exception occurs
+            LOGGER.error("构建测试影响索引异常，运行全部测试/Fail to build test impact index, running all tests", e);
+            return methods;
+        }
+
+        //加入声明的依赖，直到不再变化 / Adds declared dependencies until nothing changes
+        Set<ITestNGMethod> selected = new LinkedHashSet<>();
+        for (IMethodInstance instance : methods) {
+            if (affected.contains(key(instance.getMethod()))) {
+                selected.add(instance.getMethod());
+            }
+        }
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (IMethodInstance instance : methods) {
+                ITestNGMethod candidate = instance.getMethod();
+                if (!selected.contains(candidate) && isDependedUpon(candidate, selected)) {
+                    grown = selected.add(candidate);
+                }
+            }
+        }
+
+        List<IMethodInstance> result = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            if (selected.contains(instance.getMethod())) {
+                result.add(instance);
+            }
+        }
+        LOGGER.info("按变更选择测试方法/Selected test methods by changes: {} of {} in {}",
+                result.size(), methods.size(), context.getName());
+        return result;
+    }
+
+    /**
+     * 候选方法是否被已选方法依赖 / Whether the candidate is depended upon by a selected method
+     */
+    private static boolean isDependedUpon(ITestNGMethod candidate, Set<ITestNGMethod> selected) {
+        String qualifiedName = candidate.getQualifiedName();
+        for (ITestNGMethod method : selected) {
+            if (Arrays.asList(method.getMethodsDependedUpon()).contains(qualifiedName)) {
+                return true;
+            }
+            for (String group : method.getGroupsDependedUpon()) {
+                if (Arrays.asList(candidate.getGroups()).contains(group)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String key(ITestNGMethod method) {
+        return method.getRealClass().getSimpleName() + "." + method.getMethodName();
+    }
+}
@@ -0,0 +1,275 @@
+package com.stephen.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chrome预热配置文件模板 / Pre-warmed Chrome Profile Template
+ *
+ * <p>
+ * 每个套件（JVM）只构建一次Chrome用户数据目录模板：启动一次Chrome访问被测应用的各个页面，完成首次运行初始化、
+ * 组件更新并缓存静态资源。之后每个浏览器会话使用模板的一个副本，新浏览器打开页面时即可命中缓存，减少启动I/O。
+ * 副本优先写时复制：Linux上使用GNU cp --reflink=auto，macOS上使用cp -c（clonefile），文件系统不支持或cp失败时
+ * 退化为普通复制。<br>
+ * Builds a Chrome user-data directory template once per suite (JVM): launches Chrome once and visits the pages
+ * of the application under test, completing first-run setup, component updates and caching static assets.
+ * Every browser session then uses a clone of the template, so new browsers reach the pages with warm caches and
+ * less startup I/O. Clones prefer copy-on-write: GNU cp --reflink=auto on Linux, cp -c (clonefile) on macOS,
+ * falling back to a plain copy when the file system does not support it or cp fails.
+ * </p>
+ *
+ * <p>
+ * 模板目录按分片和JVM区分（template-shard&lt;n&gt;-&lt;id&gt;），同一目录下并行运行的分片互不覆盖，JVM退出时删除。<br>
+ * The template directory is unique per shard and JVM (template-shard&lt;n&gt;-&lt;id&gt;), so shards running in
+ * parallel against the same directory never overwrite each other; it is deleted when the JVM exits.
+ * </p>
+ *
+ * <p>
+ * 通过-Dchrome.profileTemplate=true启用，预热页面由chrome.profileTemplate.warmPaths指定（默认/login,/cookie_check）。<br>
+ * Enabled with -Dchrome.profileTemplate=true, warm-up pages are set by chrome.profileTemplate.warmPaths
+ * (/login,/cookie_check by default).
+ * </p>
+ */
+public class ChromeProfileTemplate {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("ChromeProfileTemplate.class");
+
+    //是否启用配置文件模板 / Whether profile template is enabled
+    public static final boolean ENABLED = Boolean.getBoolean("chrome.profileTemplate");
+
+    //配置文件根目录 / Profile root directory
+    private static final File ROOT = new File(System.getProperty("chrome.profileTemplate.dir", "target/chrome-profile"));
+
+    //模板目录（每个分片和JVM独立） / Template directory (unique per shard and JVM)
+    private static final File TEMPLATE = new File(ROOT, "template-shard" + GetTestData.SHARD_INDEX + "-"
+            + UUID.randomUUID().toString().substring(0, 8));
+
+    //各会话使用的模板副本 / Template clones used by each session
+    private static final Map<WebDriver, File> CLONES = new ConcurrentHashMap<>();
+
+    //模板是否已构建 / Whether the template has been built
+    private static boolean built;
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private ChromeProfileTemplate() {
+
+    }
+
+    /**
+     * 为新会话准备配置文件副本 / Prepares a profile clone for a new session
+     *
+     * <p>
+     * 首次调用时构建模板，然后复制模板并把副本设置为Chrome的用户数据目录。<br>
+     * Builds the template on first call, then clones it and sets the clone as Chrome's user-data directory.
+     * </p>
+     *
+     * @param options 新会话的Chrome选项 / Chrome options of the new session
+     * @return 配置文件副本目录 / Profile clone directory
+     */
+    public static File prepareSession(ChromeOptions options) {
+        buildTemplate();
+        File clone = new File(ROOT, "session-" + UUID.randomUUID());
+        try {
+            cloneDirectory(TEMPLATE, clone);
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("复制配置文件模板异常/Fail to clone profile template", e);
+        }
+        applyCommonArguments(options, clone);
+        return clone;
+    }
+
+    /**
+     * 绑定会话与其配置文件副本 / Binds a session to its profile clone
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @param clone 配置文件副本目录 / Profile clone directory
+     */
+    public static void bind(WebDriver driver, File clone) {
+        CLONES.put(driver, clone);
+    }
+
+    /**
+     * 删除会话的配置文件副本 / Deletes the session's profile clone
+     *
+     * <p>
+     * 需在浏览器退出后调用。<br>
+     * Must be called after the browser quits.
+     * </p>
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     */
+    public static void release(WebDriver driver) {
+        File clone = CLONES.remove(driver);
+        if (clone != null) {
+            deleteQuietly(clone);
+        }
+    }
+
+    /**
+     * 构建并预热模板 / Builds and warms the template
+     */
+    private static synchronized void buildTemplate() {
+        if (built) {
+            return;
+        }
+        deleteQuietly(TEMPLATE);
+
+        boolean warmed = false;
+        try {
+            ChromeOptions options = new ChromeOptions();
+            applyCommonArguments(options, TEMPLATE);
+            //超出时间预算的预热会话由看门狗强制回收，不会持有类锁阻塞整个套件
+            //A warm-up session overrunning its time budget is reclaimed by the watchdog instead of blocking the suite while holding the class lock
+            WebDriver driver = HttpTransport.newChromeDriver(options);
+            SessionWatchdog.register(driver);
+            try {
+                for (String path : System.getProperty("chrome.profileTemplate.warmPaths", "/login,/cookie_check").split(",")) {
+                    driver.get(DriverUtils.BASE_URL + path.trim());
+                }
+                //模板中不保留登录态 / No login status is kept in the template
+                driver.manage().deleteAllCookies();
+            } finally {
+                //退出浏览器时缓存写入磁盘 / Cache is flushed to disk when the browser quits
+                try {
+                    SessionWatchdog.quit(driver);
+                } finally {
+                    SessionWatchdog.unregister(driver);
+                }
+            }
+            warmed = true;
+        } finally {
+            if (!warmed) {
+                //预热失败时不留下半成品模板，下个会话重新构建 / No half-built template is kept, the next session rebuilds it
+                deleteQuietly(TEMPLATE);
+            }
+        }
+        built = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteQuietly(TEMPLATE)));
+        LOGGER.info("Chrome配置文件模板已预热/Chrome profile template warmed: {}", TEMPLATE.getAbsolutePath());
+    }
+
+    private static void applyCommonArguments(ChromeOptions options, File userDataDir) {
+        options.addArguments("--user-data-dir=" + userDataDir.getAbsolutePath(),
+                "--no-first-run", "--no-default-browser-check");
+    }
+
+    /**
+     * 复制目录，优先使用写时复制 / Copies a directory, copy-on-write preferred
+     *
+     * <p>
+     * --reflink只有GNU cp支持，macOS的BSD cp使用-c（clonefile，需APFS）；cp失败时使用Java复制。<br>
+     * --reflink is GNU cp only, BSD cp on macOS uses -c (clonefile, requires APFS); falls back to a Java copy
+     * when cp fails.
+     * </p>
+     */
+    private static void cloneDirectory(File source, File target) throws IOException {
+        String os = System.getProperty("os.name").toLowerCase();
+        if (!os.contains("win")) {
+            try {
+                //reflink=auto/-c：文件系统支持时写时复制 / reflink=auto/-c: copy-on-write when supported
+                String cloneFlag = os.contains("mac") ? "-c" : "--reflink=auto";
+                Process process = new ProcessBuilder("cp", "-R", cloneFlag,
+                        source.getAbsolutePath(), target.getAbsolutePath()).redirectErrorStream(true).start();
+                if (process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                    deleteLocks(target);
+                    return;
+                }
+                process.destroyForcibly();
+                deleteQuietly(target);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (IOException e) {
+                //cp不可用时使用Java复制 / Falls back to Java copy when cp is unavailable
+            }
+        }
+
+        final Path from = source.toPath();
+        final Path to = target.toPath();
+        Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(to.resolve(from.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!isLock(file)) {
+                    Files.copy(file, to.resolve(from.relativize(file)), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 是否为Chrome的进程锁文件 / Whether the file is a Chrome process lock file
+     */
+    private static boolean isLock(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("Singleton") || "lockfile".equals(name);
+    }
+
+    private static void deleteLocks(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isLock(file.toPath())) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 递归删除目录，失败时只记录日志 / Deletes a directory recursively, only logs on failure
+     *
+     * @param directory 目录 / Directory
+     */
+    static void deleteQuietly(File directory) {
+        if (!directory.exists() && !Files.isSymbolicLink(directory.toPath())) {
+            return;
+        }
+        try {
+            Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("删除配置文件目录异常/Fail to delete profile directory: " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.stephen.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * 组合测试数据生成工具类 / Combinatorial Test Data Generation Utility Class
+ *
+ * <p>
+ * 根据各列的取值域按需（惰性）生成测试数据行，不会一次性把所有行放入内存，可用于返回Iterator的DataProvider。<br>
+ * Lazily generates test data rows from per-column value domains without materialising all rows
+ * in memory, usable by DataProviders returning an Iterator.
+ * </p>
+ */
+public class CombinatorialRows {
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private CombinatorialRows() {
+
+    }
+
+    /**
+     * 全组合（笛卡尔积）展开 / Full combinatorial (cartesian product) expansion
+     *
+     * <p>
+     * 按混合进制计数依次生成每一行，行数为各列取值数的乘积。<br>
+     * Generates rows one by one with a mixed-radix counter, row count is the product of domain sizes.
+     * </p>
+     *
+     * @param domains 每列的取值域（不能为空） / Value domain of each column (cannot be empty)
+     * @return 惰性生成数据行的迭代器 / Iterator lazily generating data rows
+     */
+    public static Iterator<Object[]> cartesian(final List<? extends List<?>> domains) {
+        return new Iterator<Object[]>() {
+            //当前行各列的取值下标 / Value indexes of each column for current row
+            private final int[] indexes = new int[domains.size()];
+            private boolean exhausted = domains.isEmpty() || hasEmptyDomain(domains);
+
+            @Override
+            public boolean hasNext() {
+                return !exhausted;
+            }
+
+            @Override
+            public Object[] next() {
+                if (exhausted) {
+                    throw new NoSuchElementException();
+                }
+                Object[] row = toRow(domains, indexes);
+
+                //从最后一列开始进位 / Carry starting from last column
+                int column = indexes.length - 1;
+                while (column >= 0 && ++indexes[column] == domains.get(column).size()) {
+                    indexes[column] = 0;
+                    column--;
+                }
+                exhausted = column < 0;
+                return row;
+            }
+        };
+    }
+
+    /**
+     * 成对组合（pairwise）展开 / Pairwise expansion
+     *
+     * <p>
+     * 贪心生成覆盖任意两列所有取值组合的数据行，行数远少于全组合；所有取值对均被覆盖后结束。
+     * 少于两列时等同于全组合。<br>
+     * Greedily generates rows covering every value pair of any two columns, with far fewer rows than
+     * the full expansion; ends once all pairs are covered. Equivalent to cartesian() for fewer than two columns.
+     * </p>
+     *
+     * @param domains 每列的取值域（不能为空） / Value domain of each column (cannot be empty)
+     * @return 惰性生成数据行的迭代器 / Iterator lazily generating data rows
+     */
+    public static Iterator<Object[]> pairwise(final List<? extends List<?>> domains) {
+        if (domains.size() < 2 || hasEmptyDomain(domains)) {
+            return cartesian(domains);
+        }
+        return new Iterator<Object[]>() {
+            private final int columnCount = domains.size();
+
+            //covered[i][j][a * size(j) + b]：第i列取a且第j列取b的组合是否已覆盖（i < j）
+            //covered[i][j][a * size(j) + b]: whether column i = a with column j = b is covered (i < j)
+            private final boolean[][][] covered = new boolean[columnCount][columnCount][];
+            private int uncovered;
+
+            {
+                for (int i = 0; i < columnCount; i++) {
+                    for (int j = i + 1; j < columnCount; j++) {
+                        int pairs = domains.get(i).size() * domains.get(j).size();
+                        covered[i][j] = new boolean[pairs];
+                        uncovered += pairs;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return uncovered > 0;
+            }
+
+            @Override
+            public Object[] next() {
+                if (uncovered == 0) {
+                    throw new NoSuchElementException();
+                }
+                int[] indexes = new int[columnCount];
+                boolean[] assigned = new boolean[columnCount];
+                seedWithFirstUncoveredPair(indexes, assigned);
+
+                //其余列依次选择新覆盖取值对最多的取值 / Pick the value covering most new pairs for each remaining column
+                for (int column = 0; column < columnCount; column++) {
+                    if (assigned[column]) {
+                        continue;
+                    }
+                    int best = 0;
+                    int bestGain = -1;
+                    for (int value = 0; value < domains.get(column).size(); value++) {
+                        int gain = countNewPairs(indexes, assigned, column, value);
+                        if (gain > bestGain) {
+                            best = value;
+                            bestGain = gain;
+                        }
+                    }
+                    indexes[column] = best;
+                    assigned[column] = true;
+                }
+
+                markCovered(indexes);
+                return toRow(domains, indexes);
+            }
+
+            private void seedWithFirstUncoveredPair(int[] indexes, boolean[] assigned) {
+                for (int i = 0; i < columnCount; i++) {
+                    for (int j = i + 1; j < columnCount; j++) {
+                        int sizeJ = domains.get(j).size();
+                        for (int pair = 0; pair < covered[i][j].length; pair++) {
+                            if (!covered[i][j][pair]) {
+                                indexes[i] = pair / sizeJ;
+                                indexes[j] = pair % sizeJ;
+                                assigned[i] = true;
+                                assigned[j] = true;
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+
+            private int countNewPairs(int[] indexes, boolean[] assigned, int column, int value) {
+                int gain = 0;
+                for (int other = 0; other < columnCount; other++) {
+                    if (other != column && assigned[other] && !isCovered(other, indexes[other], column, value)) {
+                        gain++;
+                    }
+                }
+                return gain;
+            }
+
+            private boolean isCovered(int columnA, int valueA, int columnB, int valueB) {
+                if (columnA > columnB) {
+                    return isCovered(columnB, valueB, columnA, valueA);
+                }
+                return covered[columnA][columnB][valueA * domains.get(columnB).size() + valueB];
+            }
+
+            private void markCovered(int[] indexes) {
+                for (int i = 0; i < columnCount; i++) {
+                    for (int j = i + 1; j < columnCount; j++) {
+                        int pair = indexes[i] * domains.get(j).size() + indexes[j];
+                        if (!covered[i][j][pair]) {
+                            covered[i][j][pair] = true;
+                            uncovered--;
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 根据取值下标生成数据行 / Builds a data row from value indexes
+     */
+    private static Object[] toRow(List<? extends List<?>> domains, int[] indexes) {
+        Object[] row = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            row[i] = domains.get(i).get(indexes[i]);
+        }
+        return row;
+    }
+
+    /**
+     * 是否存在空的取值域 / Whether any value domain is empty
+     */
+    private static boolean hasEmptyDomain(List<? extends List<?>> domains) {
+        for (List<?> domain : domains) {
+            if (domain.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 对迭代器中的每一行进行转换 / Transforms every row of an iterator
+     *
+     * <p>
+     * 转换同样是惰性的，用于把生成的输入列补全为与Excel sheet相同的列（例如追加期望结果列）。<br>
+     * The transformation is lazy too, used to complete generated input columns into the same
+     * columns as the Excel sheet (e.g. appending the expected result column).
+     * </p>
+     *
+     * @param rows 原始数据行迭代器 / Source row iterator
+     * @param mapper 行转换函数 / Row transformation function
+     * @return 转换后的数据行迭代器 / Transformed row iterator
+     */
+    public static Iterator<Object[]> map(final Iterator<Object[]> rows,
+                                         final Function<Object[], Object[]> mapper) {
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return mapper.apply(rows.next());
+            }
+        };
+    }
+
+    /**
+     * 列表形式的取值域 / Value domain as list
+     *
+     * @param values 取值 / Values
+     * @return 取值域 / Value domain
+     */
+    public static List<Object> domain(Object... values) {
+        return new ArrayList<>(Arrays.asList(values));
+    }
+}
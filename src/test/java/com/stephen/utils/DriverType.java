@@ -0,0 +1,107 @@
+package com.stephen.utils;
+
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 浏览器驱动类型枚举 / WebDriver Backend Type Enum
+ *
+ * <p>
+ * 定义DriverUtils可创建的浏览器驱动后端，默认后端通过系统属性driver.type指定（chrome、chrome_context或htmlunit）。<br>
+ * Defines the WebDriver backends DriverUtils can create. The default backend is selected
+ * via the driver.type system property (chrome, chrome_context or htmlunit).
+ * </p>
+ *
+ * <p>
+ * 属于lightweight组的测试方法（@Test(groups = "lightweight")，方法或类上声明均可）在未指定driver.type时使用HTMLUNIT，
+ * 见forMethod()。<br>
+ * Test methods in the lightweight group (@Test(groups = "lightweight"), declared on the method or the class)
+ * use HTMLUNIT when driver.type is not set, see forMethod().
+ * </p>
+ */
+public enum DriverType {
+
+    /**
+     * Chrome浏览器（每个测试一个独立的浏览器进程） / Chrome browser (one browser process per test)
+     */
+    CHROME,
+
+    /**
+     * 共享Chrome进程中的独立浏览器上下文（类似隐身窗口，Cookie和存储相互隔离） /
+     * Isolated browser context inside a shared Chrome process (incognito-like, cookies and storage isolated)
+     */
+    CHROME_CONTEXT,
+
+    /**
+     * HtmlUnit进程内无界面浏览器（启用JavaScript，用于轻量级冒烟测试） /
+     * In-process headless HtmlUnit browser (JavaScript enabled, used for lightweight smoke runs)
+     */
+    HTMLUNIT;
+
+    /**
+     * 系统属性名称 / System property name
+     */
+    public static final String PROPERTY = "driver.type";
+
+    /**
+     * 轻量级测试组名称 / Lightweight test group name
+     */
+    public static final String LIGHTWEIGHT_GROUP = "lightweight";
+
+    /**
+     * 根据名称解析驱动类型 / Resolves driver type by name
+     *
+     * <p>
+     * 名称不区分大小写，为空时返回CHROME。<br>
+     * Name is case-insensitive, returns CHROME when blank.
+     * </p>
+     *
+     * @param name 驱动类型名称 / Driver type name
+     * @return 驱动类型 / Driver type
+     * @throws IllegalArgumentException 名称无法识别时抛出 / Thrown when name is not recognized
+     */
+    public static DriverType of(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return CHROME;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * 获取系统属性指定的默认驱动类型 / Gets default driver type from system property
+     *
+     * @return 默认驱动类型 / Default driver type
+     */
+    public static DriverType fromSystemProperty() {
+        return of(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * 获取测试方法使用的驱动类型 / Gets driver type used by a test method
+     *
+     * <p>
+     * 指定了系统属性driver.type时总是使用该类型（例如-Ddriver.type=chrome在真实浏览器中调试轻量级测试）；
+     * 否则属于lightweight组的测试方法使用HTMLUNIT，其余使用CHROME。<br>
+     * Always uses the driver.type system property when it is set (e.g. -Ddriver.type=chrome to debug a lightweight
+     * test in a real browser); otherwise test methods in the lightweight group use HTMLUNIT and all others CHROME.
+     * </p>
+     *
+     * @param testMethod 测试方法（可在@BeforeMethod方法中声明Method参数获取） / Test method (declare a Method parameter on a @BeforeMethod method to get it)
+     * @return 驱动类型 / Driver type
+     */
+    public static DriverType forMethod(Method testMethod) {
+        String name = System.getProperty(PROPERTY);
+        if (name != null && !name.trim().isEmpty()) {
+            return of(name);
+        }
+        return isLightweight(testMethod.getAnnotation(Test.class))
+                || isLightweight(testMethod.getDeclaringClass().getAnnotation(Test.class)) ? HTMLUNIT : CHROME;
+    }
+
+    private static boolean isLightweight(Test test) {
+        return test != null && Arrays.asList(test.groups()).contains(LIGHTWEIGHT_GROUP);
+    }
+}
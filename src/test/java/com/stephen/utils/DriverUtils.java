@@ -1,12 +1,15 @@
 package com.stephen.utils;
 
+import com.stephen.base.DriverContextTracker;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.Cookie;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.Set;
 
 /**
@@ -21,6 +24,18 @@ public class DriverUtils {
     //日志器 / Logger
     public static final Logger LOGGER = LoggerFactory.getLogger("DriverUtils.class");
 
+    //被测应用的根地址，通过-Dapp.baseUrl指定 / Base URL of application under test, set via -Dapp.baseUrl
+    public static final String BASE_URL = System.getProperty("app.baseUrl", "http://127.0.0.1:8080");
+
+    //数据行之间是否复用浏览器并原地重置页面，通过-Dpage.reset=true启用 / Whether data rows reuse the browser and reset the page in place, enabled via -Dpage.reset=true
+    public static final boolean PAGE_RESET = Boolean.getBoolean("page.reset");
+
+    //关闭浏览器前的延迟（毫秒），通过-Ddriver.quitDelayMs指定 / Delay before closing browser (milliseconds), set via -Ddriver.quitDelayMs
+    private static final long QUIT_DELAY_MS = Long.getLong("driver.quitDelayMs", 3000L);
+
+    //浏览器驱动是否已准备 / Whether the browser driver has been prepared
+    private static boolean chromeDriverReady;
+
     //用于存放Cookie的Set集合 / Set collection for storing cookies
     public static Set<Cookie> cookies = null;
 
@@ -28,47 +43,161 @@ public class DriverUtils {
      * 打开浏览器 / Opens browser
      *
      * <p>
-     * 首次启动或检测到浏览器版本更新后与驱动版本不匹配：自动下载或更新与浏览器版本匹配的浏览器驱动<br>
-     * Automatically downloads/updates browser driver matching browser version when:
-     * 1. First launch, or
-     * 2. Browser version update causes driver version mismatch
+     * 根据系统属性driver.type选择浏览器驱动后端（默认chrome），例如使用-Ddriver.type=htmlunit运行轻量级冒烟测试<br>
+     * Selects WebDriver backend by the driver.type system property (chrome by default),
+     * e.g. use -Ddriver.type=htmlunit for lightweight smoke runs
      * </p>
      *
      * @return WebDriver 浏览器实例对象 / WebDriver instance
      */
     public static WebDriver getDriver() {
+        return getDriver(DriverType.fromSystemProperty());
+    }
+
+    /**
+     * 打开指定类型的浏览器 / Opens browser of specified type
+     *
+     * <p>
+     * CHROME：首次启动或检测到浏览器版本更新后与驱动版本不匹配：自动下载或更新与浏览器版本匹配的浏览器驱动<br>
+     * CHROME_CONTEXT：同CHROME，但所有会话共享一个Chrome进程，每个会话使用独立的浏览器上下文<br>
+     * HTMLUNIT：创建启用JavaScript的进程内HtmlUnitDriver，无需安装浏览器，启动快、内存占用小<br>
+     * 设置-Dwebdriver.remote.url时CHROME创建远程会话；Chrome会话均使用HttpTransport调优的HTTP客户端<br>
+     * CHROME: Automatically downloads/updates browser driver matching browser version when:
+     * 1. First launch, or
+     * 2. Browser version update causes driver version mismatch<br>
+     * CHROME_CONTEXT: Same as CHROME, but all sessions share one Chrome process,
+     * each session gets its own isolated browser context<br>
+     * HTMLUNIT: Creates an in-process HtmlUnitDriver with JavaScript enabled,
+     * needs no installed browser, starts fast with a small memory footprint<br>
+     * CHROME creates a remote session when -Dwebdriver.remote.url is set; Chrome sessions all use the HTTP client
+     * tuned by HttpTransport
+     * </p>
+     *
+     * @param driverType 浏览器驱动类型 / WebDriver backend type
+     * @return WebDriver 浏览器实例对象 / WebDriver instance
+     */
+    public static WebDriver getDriver(DriverType driverType) {
+        //优先复用空闲浏览器（见IdleDriverPool） / Reuses an idle browser first (see IdleDriverPool)
+        WebDriver idle = IdleDriverPool.take(driverType);
+        if (idle != null) {
+            SessionWatchdog.register(idle);
+            return idle;
+        }
+
+        //记录浏览器启动耗时 / Records browser startup duration
+        long start = System.nanoTime();
+        try {
+            WebDriver driver = createDriver(driverType);
+            IdleDriverPool.track(driver, driverType);
+            //超出时间预算的会话由看门狗强制回收 / Sessions overrunning their time budget are reclaimed by the watchdog
+            SessionWatchdog.register(driver);
+            return driver;
+        } finally {
+            PerfRecorder.record("driver.startup." + driverType.name().toLowerCase(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 创建指定类型的浏览器实例对象 / Creates WebDriver instance of specified type
+     *
+     * @param driverType 浏览器驱动类型 / WebDriver backend type
+     * @return WebDriver 浏览器实例对象 / WebDriver instance
+     */
+    private static WebDriver createDriver(DriverType driverType) {
+        if (driverType == DriverType.HTMLUNIT) {
+            //HtmlUnit没有真实窗口，无需最大化 / HtmlUnit has no real window, no need to maximize
+            return new HtmlUnitDriver(true);
+        }
+
+        if (HttpTransport.isRemote() && driverType == DriverType.CHROME) {
+            //远程会话（如Grid）无需本地浏览器驱动 / Remote sessions (e.g. Grid) need no local driver
+            WebDriver remote = HttpTransport.newRemoteDriver(new ChromeOptions());
+            remote.manage().window().maximize();
+            return remote;
+        }
+
+        setupChromeDriver();
+
+        //共享Chrome进程模式：在同一个Chrome进程中创建独立的浏览器上下文
+        //Shared Chrome process mode: creates an isolated browser context in the same Chrome process
+        WebDriver driver;
+        if (driverType == DriverType.CHROME_CONTEXT) {
+            driver = BrowserContextPool.newContext();
+        } else if (ChromeProfileTemplate.ENABLED) {
+            //使用预热配置文件模板的副本启动 / Starts with a clone of the pre-warmed profile template
+            ChromeOptions options = new ChromeOptions();
+            File profile = ChromeProfileTemplate.prepareSession(options);
+            driver = HttpTransport.newChromeDriver(options);
+            ChromeProfileTemplate.bind(driver, profile);
+        } else {
+            driver = HttpTransport.newChromeDriver(new ChromeOptions());
+        }
+
+        //使浏览器窗口最大化 / Maximizes browser window
+        driver.manage().window().maximize();
+        return driver;
+    }
+
+    /**
+     * 准备Chrome浏览器驱动 / Prepares Chrome driver
+     *
+     * <p>
+     * 首次启动或检测到浏览器版本更新后与驱动版本不匹配：自动下载或更新与浏览器版本匹配的浏览器驱动。
+     * 每个进程只解析一次，长期运行的进程（如TestDaemon）在浏览器更新后需要重启<br>
+     * Automatically downloads/updates browser driver matching browser version when:
+     * 1. First launch, or
+     * 2. Browser version update causes driver version mismatch<br>
+     * Resolved once per JVM, long-lived processes (e.g. TestDaemon) need a restart after a browser update
+     * </p>
+     */
+    static synchronized void setupChromeDriver() {
+        if (chromeDriverReady) {
+            return;
+        }
         //设置环境变量指定Chrome浏览器驱动的中国地区镜像下载地址（中国地区以外的开发者请去掉System.setProperty()方法的调用，避免下载速度过慢）
         //Sets environment variable for Chrome driver mirror in China region (Non-China developers should remove this to avoid slow downloads)
         System.setProperty("wdm.driverManagerUrl",
                 "https://registry.npmmirror.com/binary.html?path=chrome-for-testing/");
-
-        //获取浏览器对象并使浏览器窗口最大化
-        //Acquires WebDriver instance and maximizes browser window
         WebDriverManager.chromedriver().setup();
-        WebDriver driver = new ChromeDriver();
-        driver.manage().window().maximize();
-        return driver;
+        chromeDriverReady = true;
     }
 
     /**
      * 关闭浏览器 / Closes browser
      *
      * <p>
-     * 延迟3秒后关闭浏览器<br>
-     * Closes browser after 3 seconds delay
+     * 延迟3秒（driver.quitDelayMs）后关闭浏览器；启用空闲浏览器池时浏览器会被放回池中。
+     * 关闭超时（session.quit.seconds）或失败时由SessionWatchdog强制结束进程树<br>
+     * Closes browser after 3 seconds delay (driver.quitDelayMs); the browser goes back to the pool when the idle
+     * browser pool is enabled. SessionWatchdog kills the process tree
+     * when quitting times out (session.quit.seconds) or fails
      * </p>
      *
      * @param driver 浏览器实例对象 / WebDriver instance
      */
     public static void quitDriver(WebDriver driver){
         try {
-            Thread.sleep(3000);
-            driver.quit();
+            Thread.sleep(QUIT_DELAY_MS);
         } catch (InterruptedException e) {
-            //发生异常时记录日志信息
-            //Logs error message when exception occurs
+            //被中断（如看门狗回收会话）时不再等待，直接关闭浏览器
+            //Stops waiting when interrupted (e.g. the watchdog reclaimed the session) and closes the browser right away
             LOGGER.error("关闭浏览器异常/Fail to quit driver", e);
         }
+        try {
+            //被看门狗强制结束的会话不放回池中 / Sessions killed by the watchdog are not pooled
+            if (!SessionWatchdog.isKilled(driver) && IdleDriverPool.offer(driver)) {
+                return;
+            }
+            //浏览器上下文会话只销毁上下文，不关闭共享的Chrome进程
+            //Context sessions only dispose their context, the shared Chrome process keeps running
+            if (!BrowserContextPool.release(driver)) {
+                SessionWatchdog.quit(driver);
+            }
+            //浏览器退出后删除配置文件副本 / Deletes profile clone after the browser quits
+            ChromeProfileTemplate.release(driver);
+        } finally {
+            SessionWatchdog.unregister(driver);
+        }
     }
 
     /**
@@ -102,5 +231,8 @@ public class DriverUtils {
             driver.manage().addCookie(cookie);
         }
         driver.navigate().refresh();
+
+        //刷新后回到主文档，已记录的上下文状态失效 / Back in main document after refresh, recorded context state is invalid
+        DriverContextTracker.invalidate(driver);
     }
-}
\ No newline at end of file
+}
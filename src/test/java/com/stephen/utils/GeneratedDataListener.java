@@ -0,0 +1,56 @@
+package com.stephen.utils;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * 生成测试数据监听器 / Generated Test Data Listener
+ *
+ * <p>
+ * 1. 根据系统属性dataProvider.&lt;原DataProvider名称&gt;把测试方法的DataProvider替换为GeneratedTestData中的生成器，
+ * 例如-DdataProvider.RegisterData=RegisterDataPairwise<br>
+ * 2. 测试方法失败时把入参上报给RandomRows，用于缩减失败数据<br>
+ * 1. Replaces a test method's DataProvider with a generator from GeneratedTestData according to the
+ * dataProvider.&lt;original DataProvider name&gt; system property, e.g. -DdataProvider.RegisterData=RegisterDataPairwise<br>
+ * 2. Reports parameters of failing test methods to RandomRows for shrinking
+ * </p>
+ */
+public class GeneratedDataListener implements IAnnotationTransformer, ITestListener {
+
+    /**
+     * 替换DataProvider / Replaces DataProvider
+     *
+     * @param annotation 测试方法的@Test注解 / @Test annotation of test method
+     * @param testClass 测试类 / Test class
+     * @param testConstructor 测试类构造函数 / Test class constructor
+     * @param testMethod 测试方法 / Test method
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        String dataProvider = annotation.getDataProvider();
+        if (dataProvider == null || dataProvider.isEmpty()) {
+            return;
+        }
+        String replacement = System.getProperty("dataProvider." + dataProvider);
+        if (replacement != null && !replacement.trim().isEmpty()) {
+            annotation.setDataProvider(replacement.trim());
+            annotation.setDataProviderClass(GeneratedTestData.class);
+        }
+    }
+
+    /**
+     * 上报失败的测试数据 / Reports failing test data
+     *
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void onTestFailure(ITestResult result) {
+        RandomRows.reportFailure(result.getParameters());
+    }
+}
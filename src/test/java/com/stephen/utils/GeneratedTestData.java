@@ -0,0 +1,235 @@
+package com.stephen.utils;
+
+import org.testng.annotations.DataProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 生成测试数据的工具类 / Generated Test Data Utility Class
+ *
+ * <p>
+ * 以生成器代替Excel sheet提供测试数据，数据行惰性生成，列与RegisterData sheet一致
+ * （账号、密码、确认密码、期望结果），期望结果由注册页面的校验规则推导得出。
+ * 可通过-DdataProvider.RegisterData=RegisterDataPairwise等系统属性替换testRegister()使用的DataProvider
+ * （见GeneratedDataListener）。<br>
+ * Supplies test data from generators instead of Excel sheets. Rows are generated lazily with the same
+ * columns as the RegisterData sheet (username, password, confirm password, expected result); the expected
+ * result is derived from the registration page's validation rules. The DataProvider used by testRegister()
+ * can be replaced with system properties such as -DdataProvider.RegisterData=RegisterDataPairwise
+ * (see GeneratedDataListener).
+ * </p>
+ */
+public class GeneratedTestData {
+
+    //注册页面的提示信息 / Messages of registration page
+    public static final String MESSAGE_EMPTY = "账号和密码不能为空";
+    public static final String MESSAGE_MISMATCH = "两次密码输入不一致";
+    public static final String MESSAGE_REGISTERED = "注册成功";
+
+    //确认密码取值：与密码相同、前后加空格、不同、为空 / Confirm password values: same, padded, different, empty
+    private static final String CONFIRM_SAME = "SAME";
+    private static final String CONFIRM_PADDED = "PADDED";
+    private static final String CONFIRM_DIFFERENT = "DIFFERENT";
+    private static final String CONFIRM_EMPTY = "EMPTY";
+
+    //注册数据各输入列的取值域 / Value domains of registration input columns
+    private static final List<List<Object>> REGISTER_DOMAINS = Arrays.asList(
+            CombinatorialRows.domain("", "   ", "user", "用户", "user name", repeat('u', 64)),
+            CombinatorialRows.domain("", " ", "a", "Passw0rd", "pass word", "密码123", repeat('p', 64)),
+            CombinatorialRows.domain(CONFIRM_SAME, CONFIRM_PADDED, CONFIRM_DIFFERENT, CONFIRM_EMPTY));
+
+    //随机生成字符串使用的字符 / Characters used for random strings
+    private static final String RANDOM_CHARS = "abcXYZ019 _-@.!密码用户";
+
+    //本次运行的账号后缀序号，保证注册账号不重复 / Username suffix sequence of this run, keeps registered usernames unique
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong USERNAME_SEQUENCE = new AtomicLong();
+
+    /**
+     * 全组合注册测试数据DataProvider / Full Combinatorial Registration Test Data DataProvider
+     *
+     * <p>
+     * 对各输入列的取值域进行全组合展开。<br>
+     * Expands all combinations of the input column domains.
+     * </p>
+     *
+     * @return 注册相关功能的测试数据 / Registration-related test data
+     */
+    @DataProvider(name = "RegisterDataCombinatorial")
+    public static Iterator<Object[]> getRegisterDataCombinatorial() {
+        return CombinatorialRows.map(GetTestData.shard(CombinatorialRows.cartesian(REGISTER_DOMAINS)),
+                GeneratedTestData::toRegisterRow);
+    }
+
+    /**
+     * 成对组合注册测试数据DataProvider / Pairwise Registration Test Data DataProvider
+     *
+     * <p>
+     * 覆盖任意两列所有取值组合的最少数据行。<br>
+     * Minimal rows covering every value pair of any two input columns.
+     * </p>
+     *
+     * @return 注册相关功能的测试数据 / Registration-related test data
+     */
+    @DataProvider(name = "RegisterDataPairwise")
+    public static Iterator<Object[]> getRegisterDataPairwise() {
+        return CombinatorialRows.map(GetTestData.shard(CombinatorialRows.pairwise(REGISTER_DOMAINS)),
+                GeneratedTestData::toRegisterRow);
+    }
+
+    /**
+     * 随机注册测试数据DataProvider / Random Registration Test Data DataProvider
+     *
+     * <p>
+     * 根据系统属性testdata.seed（默认当前时间）和testdata.count（默认100）生成随机数据行，
+     * 失败行最多缩减testdata.shrinkSteps（默认50）次。<br>
+     * Generates random rows by the testdata.seed (current time by default) and testdata.count
+     * (100 by default) system properties, failing rows are shrunk at most testdata.shrinkSteps (50 by default) times.
+     * </p>
+     *
+     * @return 注册相关功能的测试数据 / Registration-related test data
+     */
+    @DataProvider(name = "RegisterDataRandom")
+    public static Iterator<Object[]> getRegisterDataRandom() {
+        long seed = Long.getLong("testdata.seed", System.currentTimeMillis());
+        long count = Long.getLong("testdata.count", 100L);
+        int shrinkSteps = Integer.getInteger("testdata.shrinkSteps", 50);
+        return new RandomRows(seed, count, shrinkSteps, GeneratedTestData::randomRegisterInput,
+                GeneratedTestData::shrinkRegisterInput, GeneratedTestData::withExpectedRegisterResult,
+                GetTestData::isInShard);
+    }
+
+    /**
+     * 推导注册操作的期望结果 / Derives expected result of registration
+     *
+     * <p>
+     * 与注册页面的校验规则一致：账号和密码去除首尾空格后不能为空，密码和确认密码去除首尾空格后需一致。<br>
+     * Matches the registration page's validation: username and password must not be blank after trimming,
+     * password and confirm password must be equal after trimming.
+     * </p>
+     *
+     * @param username 账号 / Username
+     * @param password 密码 / Password
+     * @param confirmPassword 确认密码 / Confirm password
+     * @return 期望的提示信息 / Expected message
+     */
+    public static String expectedRegisterResult(String username, String password, String confirmPassword) {
+        if (username.trim().isEmpty() || password.trim().isEmpty()) {
+            return MESSAGE_EMPTY;
+        }
+        if (!password.trim().equals(confirmPassword.trim())) {
+            return MESSAGE_MISMATCH;
+        }
+        return MESSAGE_REGISTERED;
+    }
+
+    /**
+     * 把组合取值转换为注册数据行 / Converts combinatorial values into a registration row
+     */
+    private static Object[] toRegisterRow(Object[] values) {
+        String password = (String) values[1];
+        String confirm;
+        switch ((String) values[2]) {
+            case CONFIRM_SAME:
+                confirm = password;
+                break;
+            case CONFIRM_PADDED:
+                confirm = " " + password + " ";
+                break;
+            case CONFIRM_DIFFERENT:
+                confirm = password + "x";
+                break;
+            default:
+                confirm = "";
+                break;
+        }
+        return withExpectedRegisterResult(new Object[]{values[0], password, confirm});
+    }
+
+    /**
+     * 生成随机注册输入（账号、密码、确认密码） / Generates random registration input (username, password, confirm)
+     */
+    private static Object[] randomRegisterInput(Random random) {
+        String username = randomString(random, 16);
+        String password = randomString(random, 16);
+        String confirm = random.nextBoolean() ? password : randomString(random, 16);
+        return new Object[]{username, password, confirm};
+    }
+
+    /**
+     * 生成失败注册输入的缩减候选 / Generates shrink candidates of a failing registration input
+     *
+     * <p>
+     * 每个候选只缩短一列（清空、截取前半部分、去掉最后一个字符）；密码与确认密码相同时一起缩短。<br>
+     * Each candidate shortens one column (empty, first half, drop last character);
+     * password and confirm password are shortened together when equal.
+     * </p>
+     */
+    static List<Object[]> shrinkRegisterInput(Object[] raw) {
+        List<Object[]> candidates = new ArrayList<>();
+        boolean confirmFollowsPassword = raw[1].equals(raw[2]);
+        for (int column = 0; column < raw.length; column++) {
+            if (column == 2 && confirmFollowsPassword) {
+                continue;
+            }
+            String value = (String) raw[column];
+            for (String shorter : shorterStrings(value)) {
+                Object[] candidate = raw.clone();
+                candidate[column] = shorter;
+                if (column == 1 && confirmFollowsPassword) {
+                    candidate[2] = shorter;
+                }
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 给注册输入追加期望结果列，并为账号追加唯一后缀 / Appends expected result and a unique username suffix
+     */
+    private static Object[] withExpectedRegisterResult(Object[] raw) {
+        String username = (String) raw[0];
+        if (!username.trim().isEmpty()) {
+            username = username + "_" + RUN_ID + USERNAME_SEQUENCE.incrementAndGet();
+        }
+        String password = (String) raw[1];
+        String confirm = (String) raw[2];
+        return new Object[]{username, password, confirm, expectedRegisterResult(username, password, confirm)};
+    }
+
+    private static List<String> shorterStrings(String value) {
+        List<String> shorter = new ArrayList<>();
+        if (value.isEmpty()) {
+            return shorter;
+        }
+        shorter.add("");
+        if (value.length() > 2) {
+            shorter.add(value.substring(0, value.length() / 2));
+        }
+        if (value.length() > 1) {
+            shorter.add(value.substring(0, value.length() - 1));
+        }
+        return shorter;
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(RANDOM_CHARS.charAt(random.nextInt(RANDOM_CHARS.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
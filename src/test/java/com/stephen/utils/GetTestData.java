@@ -5,6 +5,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.DataProvider;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 获取测试数据的工具类 / Test Data Retrieval Utility Class
@@ -18,12 +24,30 @@ public class GetTestData {
     //日志器 / Logger
     public static final Logger LOGGER = LoggerFactory.getLogger("GetTestData.class");
 
+    //当前分片序号（从0开始）及分片总数，通过-Dshard.index/-Dshard.count指定 / Current shard index (0-based) and shard count, set via -Dshard.index/-Dshard.count
+    public static final int SHARD_INDEX = Integer.getInteger("shard.index", 0);
+    public static final int SHARD_COUNT = Integer.getInteger("shard.count", 1);
+
+    static {
+        //分片配置错误时不运行任何用例，直接失败 / Fails fast on a misconfigured shard instead of silently running nothing
+        if (SHARD_COUNT < 1 || SHARD_INDEX < 0 || SHARD_INDEX >= SHARD_COUNT) {
+            throw new IllegalArgumentException("分片配置错误/Invalid shard configuration: shard.index=" + SHARD_INDEX
+                    + ", shard.count=" + SHARD_COUNT + " (需要/requires 0 <= shard.index < shard.count)");
+        }
+    }
+
+    //已解析的sheet缓存，键为文件路径和sheet名称 / Cache of parsed sheets, keyed by file path and sheet name
+    private static final Map<String, CachedSheet> SHEETS = new ConcurrentHashMap<>();
+
     /**
      * 读取Excel文件 / Reads Excel file
      * <p>
      * 通过传入的Excel文件路径以及sheet名称，读取Excel文件内对应sheet的测试数据（从第二行开始读取，不会读取标题行）<br>
      * Reads test data from specified sheet in Excel file (starts from second row,
-     * skips header row) using provided file path and sheet name.
+     * skips header row) using provided file path and sheet name.<br>
+     * 解析结果按文件修改时间和大小缓存，同一进程（如TestDaemon）内文件未修改时不会重新解析<br>
+     * Parsed results are cached by file modification time and size, so within one JVM (e.g. TestDaemon)
+     * an unmodified file is not parsed again.
      * </p>
      *
      * @param excelPath Excel文件路径 / Excel file path
@@ -31,6 +55,30 @@ public class GetTestData {
      * @return 提供给DataProvider的存放测试数据的Object二维数组 / two-dimensional Object array containing test data for DataProvider
      */
     public static Object[][] getDataFromExcel(String excelPath, String sheet) {
+        //记录测试数据加载耗时 / Records test data load duration
+        long start = System.nanoTime();
+        try {
+            File file = new File(excelPath);
+            String key = file.getAbsolutePath() + "!" + sheet;
+            CachedSheet cached = SHEETS.get(key);
+            if (cached == null || cached.lastModified != file.lastModified() || cached.length != file.length()) {
+                cached = new CachedSheet(file.lastModified(), file.length(), readExcel(excelPath, sheet));
+                SHEETS.put(key, cached);
+            }
+            return cached.copyRows();
+        } finally {
+            PerfRecorder.record("data.load." + sheet, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 读取Excel文件内容 / Reads Excel file content
+     *
+     * @param excelPath Excel文件路径 / Excel file path
+     * @param sheet Excel文件内需要读取的sheet的名称 / Sheet name to read
+     * @return 存放测试数据的Object二维数组 / two-dimensional Object array containing test data
+     */
+    private static Object[][] readExcel(String excelPath, String sheet) {
         try (Workbook workbook = WorkbookFactory.create(new File(excelPath))) {
             Sheet dataSheet = workbook.getSheet(sheet);
             if (dataSheet == null) return new Object[0][0];
@@ -84,7 +132,7 @@ public class GetTestData {
      */
     @DataProvider(name = "RegisterData")
     public static  Object[][] getRegisterData(){
-        return getDataFromExcel("src/test/resources/TestData.xls",  "RegisterData");
+        return shard(getDataFromExcel("src/test/resources/TestData.xls",  "RegisterData"));
     }
 
     /**
@@ -99,21 +147,186 @@ public class GetTestData {
      */
     @DataProvider(name = "LoginData")
     public static  Object[][] getLoginData(){
-        return getDataFromExcel("src/test/resources/TestData.xls",  "LoginData");
+        return shard(getDataFromExcel("src/test/resources/TestData.xls",  "LoginData"));
     }
 
     /**
      * 检查登录态测试数据DataProvider / Login Status Check Test Data DataProvider
      * <p>
-     * 调用上方的getDataFromExcel()方法读取Excel文件里检查登录态功能的测试数据，作为DataProvider把测试数据提供给测试方法testCookieCheck()<br>
+     * 调用上方的getDataFromExcel()方法读取Excel文件里检查登录态功能的测试数据，作为DataProvider把测试数据提供给测试方法testCookieCheck()。
+     * 登录态来自同一进程中最后执行的登录用例，因此分片运行时全部数据行都落在最后一条登录数据所在的分片<br>
      * Invokes getDataFromExcel() to read login status check test data from Excel file,
      * supplies data to test method testCookieCheck() as DataProvider.
+     * The login cookies come from the last login test run in the same JVM, so in sharded runs all rows land in the
+     * shard owning the last login data row.
      * </p>
      *
      * @return 检查登录态功能的测试数据 / Login status check test data
      */
     @DataProvider(name = "LoginCookieCheckData")
     public static  Object[][] getLoginCookieCheckData(){
-        return getDataFromExcel("src/test/resources/TestData.xls",  "LoginCookieCheckData");
+        Object[][] datas = getDataFromExcel("src/test/resources/TestData.xls",  "LoginCookieCheckData");
+        if (SHARD_COUNT <= 1) {
+            return datas;
+        }
+        Object[][] loginDatas = getDataFromExcel("src/test/resources/TestData.xls",  "LoginData");
+        for (int i = loginDatas.length - 1; i >= 0; i--) {
+            if (loginDatas[i] != null && loginDatas[i].length > 0) {
+                return isInShard(loginDatas[i][0]) ? datas : new Object[0][0];
+            }
+        }
+        //没有登录数据时按行序号分片 / Shards by row number when there is no login data
+        return shardByRow(datas);
+    }
+
+    /**
+     * 判断分片键是否属于当前分片 / Checks whether a shard key belongs to current shard
+     *
+     * <p>
+     * 使用分片键的hashCode对分片总数取模，结果在不同进程间保持一致。<br>
+     * Uses the shard key's hashCode modulo shard count, which is stable across JVMs.
+     * </p>
+     *
+     * @param key 分片键 / Shard key
+     * @return 属于当前分片时返回true / true if the key belongs to current shard
+     */
+    public static boolean isInShard(Object key) {
+        return SHARD_COUNT <= 1 || Math.floorMod(String.valueOf(key).hashCode(), SHARD_COUNT) == SHARD_INDEX;
+    }
+
+    /**
+     * 判断行序号是否属于当前分片 / Checks whether a row number belongs to current shard
+     *
+     * <p>
+     * 行序号对分片总数取模，连续的行均匀地轮流分配到各分片。<br>
+     * Takes the row number modulo shard count, so consecutive rows are spread evenly round-robin over the shards.
+     * </p>
+     *
+     * @param rowIndex 行序号（从0开始） / Row number (from 0)
+     * @return 属于当前分片时返回true / true if the row belongs to current shard
+     */
+    public static boolean isInShard(long rowIndex) {
+        return SHARD_COUNT <= 1 || Math.floorMod(rowIndex, (long) SHARD_COUNT) == SHARD_INDEX;
+    }
+
+    /**
+     * 获取当前分片的Excel数据行 / Gets Excel data rows of current shard
+     *
+     * <p>
+     * 以第一列（账号）作为分片键，同一账号的注册、登录数据总是落在同一个分片，保证同一进程内的用例依赖关系。<br>
+     * Uses the first column (username) as shard key, so registration and login rows of the same account
+     * always land in the same shard and test dependencies stay within one JVM.
+     * </p>
+     *
+     * @param datas 全部数据行 / All data rows
+     * @return 当前分片的数据行 / Data rows of current shard
+     */
+    public static Object[][] shard(Object[][] datas) {
+        if (SHARD_COUNT <= 1) {
+            return datas;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] row : datas) {
+            if (row != null && row.length > 0 && isInShard(row[0])) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * 按行序号获取当前分片的Excel数据行 / Gets Excel data rows of current shard by row number
+     *
+     * <p>
+     * 用于没有账号列、行之间也没有依赖关系的数据。<br>
+     * For data without a username column and without dependencies between rows.
+     * </p>
+     *
+     * @param datas 全部数据行 / All data rows
+     * @return 当前分片的数据行 / Data rows of current shard
+     */
+    public static Object[][] shardByRow(Object[][] datas) {
+        if (SHARD_COUNT <= 1) {
+            return datas;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < datas.length; i++) {
+            if (isInShard(i)) {
+                rows.add(datas[i]);
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * 获取当前分片的生成数据行 / Gets generated data rows of current shard
+     *
+     * <p>
+     * 以行序号作为分片键，惰性过滤。<br>
+     * Uses the row number as shard key, filters lazily.
+     * </p>
+     *
+     * @param rows 全部数据行迭代器 / Iterator of all data rows
+     * @return 当前分片的数据行迭代器 / Iterator of data rows of current shard
+     */
+    public static Iterator<Object[]> shard(final Iterator<Object[]> rows) {
+        if (SHARD_COUNT <= 1) {
+            return rows;
+        }
+        return new Iterator<Object[]>() {
+            private long rowIndex;
+            private Object[] next = advance();
+
+            private Object[] advance() {
+                while (rows.hasNext()) {
+                    Object[] row = rows.next();
+                    if (isInShard(rowIndex++)) {
+                        return row;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Object[] next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Object[] row = next;
+                next = advance();
+                return row;
+            }
+        };
+    }
+
+    /**
+     * 缓存的sheet数据 / Cached sheet data
+     */
+    private static class CachedSheet {
+        private final long lastModified;
+        private final long length;
+        private final Object[][] rows;
+
+        CachedSheet(long lastModified, long length, Object[][] rows) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.rows = rows;
+        }
+
+        /**
+         * 复制数据行，调用方修改返回值不会影响缓存 / Copies rows, so callers cannot modify the cache
+         */
+        Object[][] copyRows() {
+            Object[][] copy = new Object[rows.length][];
+            for (int i = 0; i < rows.length; i++) {
+                copy[i] = rows[i] == null ? null : rows[i].clone();
+            }
+            return copy;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,343 @@
+package com.stephen.utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpMessage;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * WebDriver HTTP传输配置工具类 / WebDriver HTTP Transport Utility Class
+ *
+ * <p>
+ * 为JVM与chromedriver（或Grid）之间的HTTP客户端统一设置连接超时、读取超时和传输指标过滤器，
+ * 远程会话可选启用gzip响应压缩。每条HTTP请求的耗时以transport.&lt;方法&gt; &lt;路径&gt;为阶段名称记录到PerfRecorder，
+ * 请求数量和收发字节数可通过getRequestCount()、getBytesSent()和getBytesReceived()获取。<br>
+ * Configures connect timeout, read timeout and a transport metrics filter for the HTTP client between the JVM
+ * and chromedriver (or a Grid), with optional gzip response compression for remote sessions. The latency of each
+ * HTTP request is recorded to PerfRecorder under stage transport.&lt;method&gt; &lt;path&gt;, request count and
+ * bytes sent/received are available from getRequestCount(), getBytesSent() and getBytesReceived().
+ * </p>
+ *
+ * <p>
+ * 按命令类别设置超时：页面加载（timeouts.pageLoadSec）和脚本执行（timeouts.scriptSec）由浏览器端限制，只在设置了
+ * 对应属性时才修改会话的超时，未设置时保持WebDriver默认值（页面加载300秒、脚本30秒）；
+ * 传输读取超时为http.readTimeoutSec（默认60秒），并至少比设置了的浏览器端超时长10秒，使浏览器端超时先于传输超时报告。
+ * 未设置timeouts.pageLoadSec时，超过读取超时的页面加载由传输层报告超时；
+ * 连接超时为http.connectTimeoutSec（默认10秒）。设置-Dwebdriver.remote.url时创建远程会话，
+ * -Dwebdriver.remote.gzip=true启用响应压缩。<br>
+ * Timeouts per command class: page load (timeouts.pageLoadSec) and script (timeouts.scriptSec) are limited on the
+ * browser side. A session's timeouts are only changed when the matching property is set, otherwise the WebDriver
+ * defaults (300 s page load, 30 s script) stay in effect. The transport read timeout is http.readTimeoutSec (60 s by
+ * default), raised to at least 10 s above each browser-side timeout that is set, so that timeout is reported before
+ * the transport gives up. Without timeouts.pageLoadSec, a page load outlasting the read timeout is reported as a
+ * transport timeout; connect timeout is http.connectTimeoutSec (10 s by default). Remote sessions are created when
+ * -Dwebdriver.remote.url is set, -Dwebdriver.remote.gzip=true enables response compression.
+ * </p>
+ */
+public class HttpTransport {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("HttpTransport.class");
+
+    //远程WebDriver地址（如Grid），未设置时使用本地chromedriver / Remote WebDriver URL (e.g. Grid), local chromedriver when unset
+    public static final String REMOTE_URL = System.getProperty("webdriver.remote.url");
+
+    //远程会话是否启用gzip响应压缩 / Whether gzip response compression is enabled for remote sessions
+    private static final boolean GZIP = Boolean.getBoolean("webdriver.remote.gzip");
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(Long.getLong("http.connectTimeoutSec", 10L));
+
+    //浏览器端超时（秒），未设置时为null，不修改会话的超时 / Browser-side timeouts (seconds), null when unset and left untouched
+    private static final Long PAGE_LOAD_SEC = Long.getLong("timeouts.pageLoadSec");
+    private static final Long SCRIPT_SEC = Long.getLong("timeouts.scriptSec");
+
+    //只有设置了的浏览器端超时才会延长读取超时 / Only browser-side timeouts that are set extend the read timeout
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(Math.max(Long.getLong("http.readTimeoutSec", 60L),
+            Math.max(PAGE_LOAD_SEC == null ? 0L : PAGE_LOAD_SEC + 10, SCRIPT_SEC == null ? 0L : SCRIPT_SEC + 10)));
+
+    //传输指标 / Transport metrics
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong BYTES_SENT = new AtomicLong();
+    private static final AtomicLong BYTES_RECEIVED = new AtomicLong();
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private HttpTransport() {
+
+    }
+
+    /**
+     * 是否创建远程会话 / Whether remote sessions are created
+     *
+     * @return 设置了webdriver.remote.url时返回true / true when webdriver.remote.url is set
+     */
+    public static boolean isRemote() {
+        return REMOTE_URL != null && !REMOTE_URL.trim().isEmpty();
+    }
+
+    /**
+     * 使用调优的HTTP客户端创建本地ChromeDriver / Creates a local ChromeDriver with the tuned HTTP client
+     *
+     * <p>
+     * 每个会话使用独立的ChromeDriverService，会话退出时随之停止。<br>
+     * 浏览器带有会话标记参数，服务和标记绑定到SessionWatchdog，会话挂起时用于强制结束进程树。<br>
+     * Every session uses its own ChromeDriverService, which stops when the session quits.
+     * The browser carries a session marker argument; the service and marker are bound to SessionWatchdog to kill the
+     * process tree when the session hangs.
+     * </p>
+     *
+     * @param options Chrome选项 / Chrome options
+     * @return 浏览器实例对象 / WebDriver instance
+     */
+    public static ChromeDriver newChromeDriver(ChromeOptions options) {
+        return newChromeDriver(ChromeDriverService.createDefaultService(), options);
+    }
+
+    /**
+     * 使用指定的chromedriver服务创建本地ChromeDriver / Creates a local ChromeDriver on the given chromedriver service
+     *
+     * <p>
+     * 调用方持有服务时，可以通过newSessionOn()在同一个chromedriver进程中创建更多会话。<br>
+     * When the caller keeps the service, more sessions can be created in the same chromedriver process through
+     * newSessionOn().
+     * </p>
+     *
+     * @param service chromedriver服务（会话退出时随之停止） / chromedriver service (stops when the session quits)
+     * @param options Chrome选项 / Chrome options
+     * @return 浏览器实例对象 / WebDriver instance
+     */
+    public static ChromeDriver newChromeDriver(ChromeDriverService service, ChromeOptions options) {
+        String marker = SessionWatchdog.newMarker();
+        options.addArguments("--" + marker);
+        ChromeDriver driver = new ChromeDriver(service, options, clientConfig(false));
+        SessionWatchdog.bindProcesses(driver, service, marker);
+        applyTimeouts(driver);
+        return driver;
+    }
+
+    /**
+     * 在已运行的chromedriver服务上创建新会话 / Creates a new session on a running chromedriver service
+     *
+     * <p>
+     * 不启动新的chromedriver进程，会话退出时服务继续运行。<br>
+     * Starts no new chromedriver process, the service keeps running when the session quits.
+     * </p>
+     *
+     * @param serviceUrl chromedriver服务地址 / chromedriver service URL
+     * @param capabilities 浏览器能力 / Browser capabilities
+     * @return 浏览器实例对象 / WebDriver instance
+     */
+    public static WebDriver newSessionOn(URL serviceUrl, Capabilities capabilities) {
+        WebDriver driver = RemoteWebDriver.builder()
+                .oneOf(capabilities)
+                .address(serviceUrl)
+                .config(clientConfig(false))
+                .build();
+        applyTimeouts(driver);
+        return driver;
+    }
+
+    /**
+     * 使用调优的HTTP客户端创建远程会话 / Creates a remote session with the tuned HTTP client
+     *
+     * @param capabilities 浏览器能力 / Browser capabilities
+     * @return 浏览器实例对象 / WebDriver instance
+     */
+    public static WebDriver newRemoteDriver(Capabilities capabilities) {
+        WebDriver driver = RemoteWebDriver.builder()
+                .oneOf(capabilities)
+                .address(REMOTE_URL)
+                .config(clientConfig(true))
+                .build();
+        applyTimeouts(driver);
+        return driver;
+    }
+
+    /**
+     * 构建HTTP客户端配置 / Builds HTTP client configuration
+     *
+     * <p>
+     * Selenium的HTTP客户端默认保持长连接，同一会话的命令复用连接。<br>
+     * Selenium's HTTP clients keep connections alive by default, commands of one session reuse connections.
+     * </p>
+     *
+     * @param remote 是否为远程会话 / Whether for a remote session
+     * @return HTTP客户端配置 / HTTP client configuration
+     */
+    public static ClientConfig clientConfig(boolean remote) {
+        //指标过滤器最靠近网络，统计的是实际传输的字节数 / Metrics filter sits closest to the wire, counting bytes actually transferred
+        Filter filter = remote && GZIP ? gzipFilter().andThen(metricsFilter()) : metricsFilter();
+        return ClientConfig.defaultConfig()
+                .connectionTimeout(CONNECT_TIMEOUT)
+                .readTimeout(READ_TIMEOUT)
+                .withFilter(filter);
+    }
+
+    /**
+     * 获取HTTP请求数量 / Gets HTTP request count
+     *
+     * @return 请求数量 / Request count
+     */
+    public static long getRequestCount() {
+        return REQUESTS.get();
+    }
+
+    /**
+     * 获取发送的请求体字节数 / Gets request body bytes sent
+     *
+     * @return 字节数 / Bytes
+     */
+    public static long getBytesSent() {
+        return BYTES_SENT.get();
+    }
+
+    /**
+     * 获取接收的响应体字节数 / Gets response body bytes received
+     *
+     * @return 字节数 / Bytes
+     */
+    public static long getBytesReceived() {
+        return BYTES_RECEIVED.get();
+    }
+
+    /**
+     * 按命令类别设置浏览器端超时，只设置指定了属性的超时 / Sets browser-side timeouts per command class, only those whose property is set
+     */
+    private static void applyTimeouts(WebDriver driver) {
+        if (PAGE_LOAD_SEC != null) {
+            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(PAGE_LOAD_SEC));
+        }
+        if (SCRIPT_SEC != null) {
+            driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(SCRIPT_SEC));
+        }
+    }
+
+    /**
+     * 传输指标过滤器 / Transport metrics filter
+     */
+    private static Filter metricsFilter() {
+        return next -> request -> {
+            long start = System.nanoTime();
+            HttpResponse response = next.execute(request);
+            long nanos = System.nanoTime() - start;
+
+            REQUESTS.incrementAndGet();
+            countBytes(request, BYTES_SENT);
+            countBytes(response, BYTES_RECEIVED);
+            PerfRecorder.record("transport." + request.getMethod() + " " + normalizePath(request.getUri()), nanos);
+            return response;
+        };
+    }
+
+    /**
+     * gzip响应压缩过滤器 / gzip response compression filter
+     */
+    private static Filter gzipFilter() {
+        return next -> request -> {
+            request.setHeader("Accept-Encoding", "gzip");
+            HttpResponse response = next.execute(request);
+            if ("gzip".equalsIgnoreCase(response.getHeader("Content-Encoding"))) {
+                try (InputStream in = new GZIPInputStream(response.getContent().get())) {
+                    byte[] body = readFully(in);
+                    response.removeHeader("Content-Encoding");
+                    response.setHeader("Content-Length", String.valueOf(body.length));
+                    response.setContent(Contents.bytes(body));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return response;
+        };
+    }
+
+    /**
+     * 统计消息体字节数 / Counts message body bytes
+     *
+     * <p>
+     * 有Content-Length头时直接使用；否则包装消息体的输入流，在读取时计数，不缓冲消息体。<br>
+     * Uses the Content-Length header when present; otherwise wraps the body's input stream and counts bytes as they
+     * are read, without buffering the body.
+     * </p>
+     */
+    private static void countBytes(HttpMessage<?> message, AtomicLong counter) {
+        String header = message.getHeader("Content-Length");
+        if (header != null) {
+            try {
+                counter.addAndGet(Long.parseLong(header.trim()));
+                return;
+            } catch (NumberFormatException ignored) {
+                //按读取的内容计数 / Falls back to counting the content read
+            }
+        }
+        Supplier<InputStream> content = message.getContent();
+        message.setContent(() -> new FilterInputStream(content.get()) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    counter.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    counter.addAndGet(n);
+                }
+                return n;
+            }
+        });
+    }
+
+    /**
+     * 把会话ID、元素ID等路径段替换为{id}，使同类命令归入同一阶段 /
+     * Replaces path segments such as session and element IDs with {id}, so commands of one kind share a stage
+     */
+    static String normalizePath(String uri) {
+        String path = uri.split("\\?")[0];
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            normalized.append('/').append(segment.matches("[a-z_-]+") && segment.length() < 32 ? segment : "{id}");
+        }
+        return normalized.length() == 0 ? "/" : normalized.toString();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,239 @@
+package com.stephen.utils;
+
+import com.stephen.base.DriverContextTracker;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 空闲浏览器池 / Idle Browser Pool
+ *
+ * <p>
+ * 通过-Ddriver.pool.idle=&lt;数量&gt;启用（默认0，不启用；TestDaemon默认为2）。DriverUtils.quitDriver()关闭浏览器时，
+ * 先在当前页面源和被测应用源（DriverUtils.BASE_URL）上分别清除Cookie和存储（Chrome还会通过DevTools删除所有源的Cookie）并打开空白页，
+ * 然后把浏览器放回池中；DriverUtils.getDriver()优先取出同类型的空闲浏览器，省去浏览器启动时间。
+ * 共享Chrome进程的上下文会话（CHROME_CONTEXT）和打开了多个窗口的浏览器不放回池中。<br>
+ * Enabled with -Ddriver.pool.idle=&lt;count&gt; (0 by default, disabled; TestDaemon defaults to 2). When
+ * DriverUtils.quitDriver() closes a browser, cookies and storage are cleared on the current page's origin and on the
+ * application origin (DriverUtils.BASE_URL), Chrome also deletes the cookies of all origins through DevTools, and a
+ * blank page is opened, then the browser goes back to the pool; DriverUtils.getDriver() takes an idle browser of the same type first, saving the
+ * browser startup time. Context sessions of the shared Chrome process (CHROME_CONTEXT) and browsers with more than
+ * one window are not pooled.
+ * </p>
+ */
+public class IdleDriverPool {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("IdleDriverPool.class");
+
+    //每种类型最多保留的空闲浏览器数量 / Maximum idle browsers kept per type
+    public static final int MAX_IDLE = Integer.getInteger("driver.pool.idle", 0);
+
+    //由DriverUtils创建的浏览器及其类型 / Browsers created by DriverUtils and their types
+    private static final Map<WebDriver, DriverType> TYPES =
+            Collections.synchronizedMap(new WeakHashMap<WebDriver, DriverType>());
+
+    //各类型的空闲浏览器 / Idle browsers of each type
+    private static final Map<DriverType, Deque<WebDriver>> IDLE = new EnumMap<>(DriverType.class);
+
+    private static boolean shutdownHookAdded;
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private IdleDriverPool() {
+
+    }
+
+    /**
+     * 记录新建浏览器的类型 / Records type of a newly created browser
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @param driverType 浏览器驱动类型 / WebDriver backend type
+     */
+    static void track(WebDriver driver, DriverType driverType) {
+        if (MAX_IDLE > 0 && driverType != DriverType.CHROME_CONTEXT) {
+            TYPES.put(driver, driverType);
+        }
+    }
+
+    /**
+     * 取出一个可用的空闲浏览器 / Takes a usable idle browser
+     *
+     * @param driverType 浏览器驱动类型 / WebDriver backend type
+     * @return 空闲浏览器，没有时返回null / Idle browser, null when none
+     */
+    static WebDriver take(DriverType driverType) {
+        while (true) {
+            WebDriver driver;
+            synchronized (IDLE) {
+                Deque<WebDriver> idle = IDLE.get(driverType);
+                driver = idle == null ? null : idle.pollFirst();
+            }
+            if (driver == null) {
+                return null;
+            }
+            try {
+                //确认浏览器仍然可用 / Makes sure the browser is still usable
+                driver.getWindowHandle();
+                return driver;
+            } catch (WebDriverException e) {
+                LOGGER.warn("丢弃不可用的空闲浏览器/Discarding unusable idle browser: {}", e.getMessage());
+                quitQuietly(driver);
+            }
+        }
+    }
+
+    /**
+     * 清理浏览器并放回池中 / Cleans a browser and puts it back into the pool
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @return 已放回池中时返回true，调用方需自行关闭浏览器时返回false / true if pooled, false if the caller must quit it
+     */
+    static boolean offer(WebDriver driver) {
+        DriverType driverType = TYPES.get(driver);
+        if (driverType == null) {
+            return false;
+        }
+        synchronized (IDLE) {
+            Deque<WebDriver> idle = IDLE.get(driverType);
+            if (idle != null && idle.size() >= MAX_IDLE) {
+                return false;
+            }
+        }
+        try {
+            if (driver.getWindowHandles().size() != 1) {
+                return false;
+            }
+            //Cookie和存储按源隔离，在每个已知的源上分别清除，再离开页面
+            //Cookies and storage are per origin, so each known origin is cleared before leaving the page
+            String current = origin(driver.getCurrentUrl());
+            String application = origin(DriverUtils.BASE_URL);
+            if (current != null && !current.equals(application)) {
+                clearOrigin(driver);
+            }
+            if (application != null) {
+                if (!application.equals(current)) {
+                    driver.get(DriverUtils.BASE_URL);
+                }
+                clearOrigin(driver);
+            }
+            if (driver instanceof HasCdp) {
+                //删除所有源的Cookie / Deletes cookies of all origins
+                ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Collections.<String, Object>emptyMap());
+            }
+            driver.get("about:blank");
+        } catch (WebDriverException e) {
+            LOGGER.warn("清理浏览器失败，不放回池中/Fail to clean browser, not pooled: {}", e.getMessage());
+            return false;
+        }
+        DriverContextTracker.invalidate(driver);
+
+        synchronized (IDLE) {
+            Deque<WebDriver> idle = IDLE.get(driverType);
+            if (idle == null) {
+                idle = new ArrayDeque<>();
+                IDLE.put(driverType, idle);
+            }
+            if (idle.size() >= MAX_IDLE) {
+                return false;
+            }
+            idle.addFirst(driver);
+            if (!shutdownHookAdded) {
+                shutdownHookAdded = true;
+                Runtime.getRuntime().addShutdownHook(new Thread(IdleDriverPool::shutdown));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清除当前页面源的存储和Cookie / Clears storage and cookies of the current page's origin
+     */
+    private static void clearOrigin(WebDriver driver) {
+        ((JavascriptExecutor) driver).executeScript(
+                "try { localStorage.clear(); sessionStorage.clear(); } catch (ignored) {}");
+        driver.manage().deleteAllCookies();
+    }
+
+    /**
+     * 获取地址的源（协议、主机和端口），非http(s)地址返回null / Gets origin (scheme, host and port) of a URL, null for non-http(s) URLs
+     */
+    private static String origin(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return scheme.toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取空闲浏览器数量 / Gets idle browser count
+     *
+     * @return 空闲浏览器数量 / Idle browser count
+     */
+    public static int getIdleCount() {
+        synchronized (IDLE) {
+            int count = 0;
+            for (Deque<WebDriver> idle : IDLE.values()) {
+                count += idle.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 关闭所有空闲浏览器 / Quits all idle browsers
+     */
+    public static void shutdown() {
+        List<WebDriver> drivers = new ArrayList<>();
+        synchronized (IDLE) {
+            for (Deque<WebDriver> idle : IDLE.values()) {
+                drivers.addAll(idle);
+                idle.clear();
+            }
+        }
+        for (WebDriver driver : drivers) {
+            quitQuietly(driver);
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("关闭空闲浏览器异常/Fail to quit idle browser", e);
+        } finally {
+            TYPES.remove(driver);
+            ChromeProfileTemplate.release(driver);
+        }
+    }
+}
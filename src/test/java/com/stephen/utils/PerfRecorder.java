@@ -0,0 +1,145 @@
+package com.stephen.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 性能耗时记录工具类 / Performance Timing Recorder Utility Class
+ *
+ * <p>
+ * 按阶段名称汇总耗时样本（次数、平均值、标准差），阶段包括浏览器启动、测试数据加载、页面操作和测试方法。
+ * 由PerformanceBaselineReporter在套件结束时与基线进行比较。<br>
+ * Aggregates duration samples (count, mean, standard deviation) by stage name. Stages include browser
+ * startup, test data loading, page operations and test methods. Compared against the baseline by
+ * PerformanceBaselineReporter when the suite finishes.
+ * </p>
+ */
+public class PerfRecorder {
+
+    //各阶段的耗时统计 / Duration statistics of each stage
+    private static final Map<String, Stats> STAGES = new ConcurrentHashMap<>();
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private PerfRecorder() {
+
+    }
+
+    /**
+     * 记录一次耗时 / Records one duration sample
+     *
+     * @param stage 阶段名称 / Stage name
+     * @param nanos 耗时（纳秒） / Duration in nanoseconds
+     */
+    public static void record(String stage, long nanos) {
+        STAGES.computeIfAbsent(stage, key -> new Stats()).add(nanos / 1_000_000.0);
+    }
+
+    /**
+     * 清除所有阶段的统计 / Clears statistics of all stages
+     *
+     * <p>
+     * 用于在同一个JVM中开始新的一次运行（如TestDaemon），使本次运行的结果不混入之前运行的样本。<br>
+     * Used when a new run starts in the same JVM (e.g. TestDaemon), so this run's results do not include samples of
+     * earlier runs.
+     * </p>
+     */
+    public static void reset() {
+        STAGES.clear();
+    }
+
+    /**
+     * 获取当前所有阶段的统计快照（按名称排序） / Gets a snapshot of all stage statistics (sorted by name)
+     *
+     * @return 阶段名称到统计的映射 / Map of stage name to statistics
+     */
+    public static Map<String, Stats> snapshot() {
+        Map<String, Stats> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Stats> entry : STAGES.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().copy());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 耗时统计（毫秒） / Duration statistics (milliseconds)
+     *
+     * <p>
+     * 使用Welford算法在线计算平均值和方差。<br>
+     * Computes mean and variance online with Welford's algorithm.
+     * </p>
+     */
+    public static class Stats {
+        private long count;
+        private double mean;
+        private double m2;
+
+        /**
+         * 构造函数 / Constructor
+         */
+        public Stats() {
+
+        }
+
+        /**
+         * 由已知的统计值构造 / Constructs from known statistics
+         *
+         * @param count 样本数量 / Sample count
+         * @param mean 平均值（毫秒） / Mean in milliseconds
+         * @param stdDev 标准差（毫秒） / Standard deviation in milliseconds
+         */
+        public Stats(long count, double mean, double stdDev) {
+            this.count = count;
+            this.mean = mean;
+            this.m2 = count > 1 ? stdDev * stdDev * (count - 1) : 0;
+        }
+
+        synchronized void add(double millis) {
+            count++;
+            double delta = millis - mean;
+            mean += delta / count;
+            m2 += delta * (millis - mean);
+        }
+
+        synchronized Stats copy() {
+            Stats copy = new Stats();
+            copy.count = count;
+            copy.mean = mean;
+            copy.m2 = m2;
+            return copy;
+        }
+
+        /**
+         * 获取样本数量 / Gets sample count
+         *
+         * @return 样本数量 / Sample count
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * 获取平均值 / Gets mean
+         *
+         * @return 平均值（毫秒） / Mean in milliseconds
+         */
+        public synchronized double getMean() {
+            return mean;
+        }
+
+        /**
+         * 获取样本标准差 / Gets sample standard deviation
+         *
+         * @return 标准差（毫秒） / Standard deviation in milliseconds
+         */
+        public synchronized double getStdDev() {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.stephen.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNGException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 性能基线报告器 / Performance Baseline Reporter
+ *
+ * <p>
+ * 记录每个测试方法的耗时（页面操作、浏览器启动和测试数据加载的耗时由PerfRecorder记录），套件结束时写入
+ * target/perf/current-run.properties（分片运行时为current-run-shard&lt;序号&gt;.properties），
+ * 并与基线文件（perf.baseline，默认target/perf/perf-baseline.properties）逐阶段比较。
+ * 测试方法的阶段名称包含驱动类型（test.&lt;驱动类型&gt;.&lt;测试类&gt;.&lt;方法&gt;），HtmlUnit和Chrome的耗时分别比较。
+ * 阶段平均耗时同时满足以下条件时视为退化：<br>
+ * 1. 相对基线增长超过容差（perf.tolerance，默认0.2，可在基线文件中按阶段设置&lt;阶段&gt;.tolerance）<br>
+ * 2. 绝对增长超过perf.minDeltaMs（默认50毫秒）<br>
+ * 3. 增长的z值超过perf.zScore（默认3.0，基于两次运行的标准误差）<br>
+ * perf.gate为fail时退化会使构建失败，为warn（默认）时只记录警告，为off时不比较。
+ * 只有指定-Dperf.baseline.update=true时才把本次结果写入基线文件（分片运行时不写入）；
+ * 需要在版本库中维护评审过的基线时，用-Dperf.baseline指定版本库中的文件。<br>
+ * Records the duration of each test method (page operation, browser startup and data load durations are
+ * recorded by PerfRecorder), writes target/perf/current-run.properties (current-run-shard&lt;index&gt;.properties
+ * in sharded runs) when the suite finishes and compares each stage against the baseline file (perf.baseline,
+ * target/perf/perf-baseline.properties by default). Test method stage names include the driver type
+ * (test.&lt;driver type&gt;.&lt;test class&gt;.&lt;method&gt;), so HtmlUnit and Chrome durations are compared
+ * separately. A stage regresses when its mean duration:<br>
+ * 1. grows beyond the tolerance relative to baseline (perf.tolerance, 0.2 by default, can be set per stage
+ * as &lt;stage&gt;.tolerance in the baseline file)<br>
+ * 2. grows by more than perf.minDeltaMs (50 ms by default)<br>
+ * 3. grows with a z-score above perf.zScore (3.0 by default, based on the standard error of both runs)<br>
+ * With perf.gate=fail a regression fails the build, with warn (default) it is only logged, off skips comparison.
+ * This run's results are written into the baseline file only with -Dperf.baseline.update=true (never in sharded
+ * runs); to keep a reviewed baseline under version control, point -Dperf.baseline at a file in the repository.
+ * </p>
+ */
+public class PerformanceBaselineReporter implements ITestListener, ISuiteListener {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("PerformanceBaselineReporter.class");
+
+    //基线文件格式版本 / Baseline file format version
+    public static final String FORMAT_VERSION = "2";
+
+    /**
+     * 记录通过的测试方法耗时 / Records duration of passed test method
+     *
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        recordTest(result);
+    }
+
+    /**
+     * 记录失败的测试方法耗时 / Records duration of failed test method
+     *
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void onTestFailure(ITestResult result) {
+        recordTest(result);
+    }
+
+    /**
+     * 套件结束时比较并写出结果 / Compares and writes results when suite finishes
+     *
+     * @param suite 测试套件 / Test suite
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        String gate = System.getProperty("perf.gate", "warn");
+        Map<String, PerfRecorder.Stats> current = PerfRecorder.snapshot();
+        File baselineFile = new File(System.getProperty("perf.baseline", "target/perf/perf-baseline.properties"));
+        //各分片写入自己的结果文件 / Each shard writes its own result file
+        String currentRun = GetTestData.SHARD_COUNT > 1
+                ? "target/perf/current-run-shard" + GetTestData.SHARD_INDEX + ".properties"
+                : "target/perf/current-run.properties";
+
+        try {
+            write(current, new Properties(), new File(currentRun));
+            Properties baseline = load(baselineFile);
+
+            if (Boolean.getBoolean("perf.baseline.update")) {
+                if (GetTestData.SHARD_COUNT > 1) {
+                    //分片只运行部分数据行，且并行写入同一文件会相互覆盖 / Shards run part of the rows and would overwrite each other
+                    LOGGER.warn("分片运行时不更新性能基线/Performance baseline is not updated in sharded runs");
+                    return;
+                }
+                write(current, baseline, baselineFile);
+                LOGGER.info("已更新性能基线/Performance baseline updated: {}", baselineFile.getPath());
+                return;
+            }
+            if ("off".equalsIgnoreCase(gate)) {
+                return;
+            }
+            if (baseline.isEmpty()) {
+                LOGGER.info("未找到性能基线，跳过比较（使用-Dperf.baseline.update=true写入）/No performance baseline found, "
+                        + "comparison skipped (write one with -Dperf.baseline.update=true): {}", baselineFile.getPath());
+                return;
+            }
+            if (!FORMAT_VERSION.equals(baseline.getProperty("format.version"))) {
+                LOGGER.warn("性能基线格式版本不匹配，跳过比较/Baseline format version mismatch, comparison skipped: {}",
+                        baseline.getProperty("format.version"));
+                return;
+            }
+
+            List<String> regressions = compare(current, baseline);
+            LOGGER.info("性能基线比较/Performance baseline comparison: {} stage(s), {} regression(s)",
+                    current.size(), regressions.size());
+            if (!regressions.isEmpty()) {
+                for (String regression : regressions) {
+                    LOGGER.warn("性能退化/Performance regression: {}", regression);
+                }
+                if ("fail".equalsIgnoreCase(gate)) {
+                    throw new TestNGException("性能退化/Performance regression in " + regressions.size()
+                            + " stage(s): " + regressions);
+                }
+            }
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Log error when exception occurs
+            LOGGER.error("读写性能基线异常/Performance baseline IO Error", e);
+        }
+    }
+
+    /**
+     * 与基线比较 / Compares with baseline
+     *
+     * @param current 本次运行的统计 / Statistics of this run
+     * @param baseline 基线 / Baseline
+     * @return 退化阶段的描述 / Descriptions of regressed stages
+     */
+    static List<String> compare(Map<String, PerfRecorder.Stats> current, Properties baseline) {
+        double defaultTolerance = Double.parseDouble(System.getProperty("perf.tolerance", "0.2"));
+        double minDeltaMs = Double.parseDouble(System.getProperty("perf.minDeltaMs", "50"));
+        double zScore = Double.parseDouble(System.getProperty("perf.zScore", "3.0"));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, PerfRecorder.Stats> entry : current.entrySet()) {
+            String stage = entry.getKey();
+            String baselineMean = baseline.getProperty(stage + ".mean");
+            if (baselineMean == null) {
+                continue;
+            }
+            PerfRecorder.Stats before = new PerfRecorder.Stats(
+                    Long.parseLong(baseline.getProperty(stage + ".count", "1")),
+                    Double.parseDouble(baselineMean),
+                    Double.parseDouble(baseline.getProperty(stage + ".stddev", "0")));
+            PerfRecorder.Stats after = entry.getValue();
+            double tolerance = Double.parseDouble(baseline.getProperty(stage + ".tolerance",
+                    String.valueOf(defaultTolerance)));
+
+            double delta = after.getMean() - before.getMean();
+            double standardError = Math.sqrt(square(before.getStdDev()) / before.getCount()
+                    + square(after.getStdDev()) / after.getCount());
+            boolean significant = standardError == 0 || delta / standardError > zScore;
+            if (delta > before.getMean() * tolerance && delta > minDeltaMs && significant) {
+                regressions.add(String.format("%s: %.1f ms -> %.1f ms (+%.0f%%, tolerance %.0f%%)",
+                        stage, before.getMean(), after.getMean(), delta * 100 / before.getMean(), tolerance * 100));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * 记录测试方法耗时，按驱动类型区分阶段 / Records test method duration, stages are keyed by driver type
+     */
+    private static void recordTest(ITestResult result) {
+        DriverType driverType = DriverType.forMethod(result.getMethod().getConstructorOrMethod().getMethod());
+        String stage = "test." + driverType.name().toLowerCase(Locale.ROOT) + "."
+                + result.getTestClass().getRealClass().getSimpleName() + "." + result.getName();
+        PerfRecorder.record(stage, (result.getEndMillis() - result.getStartMillis()) * 1_000_000L);
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * 写出统计结果，保留目标文件中未被本次运行覆盖的阶段及其容差设置 /
+     * Writes statistics, keeping stages not covered by this run and tolerance settings of the target file
+     */
+    private static void write(Map<String, PerfRecorder.Stats> stats, Properties base, File file) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        for (String key : base.stringPropertyNames()) {
+            values.put(key, base.getProperty(key));
+        }
+        values.put("format.version", FORMAT_VERSION);
+        for (Map.Entry<String, PerfRecorder.Stats> entry : stats.entrySet()) {
+            PerfRecorder.Stats value = entry.getValue();
+            values.put(entry.getKey() + ".count", String.valueOf(value.getCount()));
+            values.put(entry.getKey() + ".mean", String.format(Locale.ROOT, "%.3f", value.getMean()));
+            values.put(entry.getKey() + ".stddev", String.format(Locale.ROOT, "%.3f", value.getStdDev()));
+        }
+
+        Properties properties = new Properties();
+        properties.putAll(values);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录/Cannot create directory " + parent.getPath());
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "Performance baseline (durations in milliseconds)");
+        }
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,239 @@
+package com.stephen.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 随机测试数据生成迭代器 / Random Test Data Row Iterator
+ *
+ * <p>
+ * 使用固定种子惰性生成指定数量的随机数据行，相同种子得到相同的数据序列，便于复现。
+ * 某一行测试失败时（由GeneratedDataListener上报），会在后续行之前插入该行的缩减候选行（更短的输入），
+ * 逐步逼近最小的失败用例。可以传入行过滤条件（如GetTestData::isInShard），只返回序号满足条件的行（缩减候选行不过滤）。<br>
+ * Lazily generates a given number of random rows from a fixed seed, the same seed yields the same
+ * sequence for reproducibility. When a row fails (reported by GeneratedDataListener), shrink candidates
+ * of that row (shorter inputs) are yielded before the remaining rows, converging on a minimal failing case.
+ * A row filter (e.g. GetTestData::isInShard) may be passed so only rows whose index matches are returned (shrink
+ * candidates are not filtered).
+ * </p>
+ *
+ * <p>
+ * 失败行按参数对象的身份（而非参数值）匹配：每行的字符串参数都是独立的实例，
+ * 因此参数值相同（例如账号为空、没有唯一后缀）的不同行不会相互混淆。<br>
+ * Failing rows are matched by the identity of their parameter objects, not by their values: string parameters
+ * of every row are distinct instances, so different rows with equal values (e.g. blank usernames without a
+ * unique suffix) are never confused with each other.
+ * </p>
+ */
+public class RandomRows implements Iterator<Object[]> {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("RandomRows.class");
+
+    //为缩减失败行而保留的最近生成行数量 / Number of recently emitted rows kept for shrinking failures
+    private static final int RECENT_ROW_LIMIT = 1024;
+
+    //尚未结束的迭代器，用于接收失败上报 / Unfinished iterators receiving failure reports
+    private static final Set<RandomRows> ACTIVE = Collections.newSetFromMap(new ConcurrentHashMap<RandomRows, Boolean>());
+
+    private final Random random;
+    private final Function<Random, Object[]> generator;
+    private final Function<Object[], List<Object[]>> shrinker;
+    private final Function<Object[], Object[]> materializer;
+    private final LongPredicate rowFilter;
+    private long remaining;
+    private long rowIndex;
+    private int shrinkBudget;
+
+    //下一条满足过滤条件的生成行 / Next generated row passing the filter
+    private Object[] nextGenerated;
+
+    //待执行的缩减候选行 / Pending shrink candidate rows
+    private final Deque<Object[]> shrinkCandidates = new ArrayDeque<>();
+
+    //最近生成的数据行（最终参数的身份 -> 原始输入） / Recently emitted rows (identity of final parameters -> raw inputs)
+    private final Map<RowKey, Object[]> recentRows = new LinkedHashMap<RowKey, Object[]>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RowKey, Object[]> eldest) {
+            return size() > RECENT_ROW_LIMIT;
+        }
+    };
+
+    /**
+     * 构造函数，返回全部生成行 / Constructor returning all generated rows
+     *
+     * @param seed 随机种子 / Random seed
+     * @param count 生成的行数 / Number of rows to generate
+     * @param shrinkBudget 最多插入的缩减候选行数量 / Maximum number of shrink candidate rows to insert
+     * @param generator 原始输入生成函数 / Raw input generator
+     * @param shrinker 由失败的原始输入生成缩减候选的函数 / Produces shrink candidates from a failing raw input
+     * @param materializer 由原始输入生成最终参数（如追加期望结果列）的函数 / Builds final parameters from raw input (e.g. appends expected result)
+     */
+    public RandomRows(long seed, long count, int shrinkBudget, Function<Random, Object[]> generator,
+                      Function<Object[], List<Object[]>> shrinker, Function<Object[], Object[]> materializer) {
+        this(seed, count, shrinkBudget, generator, shrinker, materializer, rowIndex -> true);
+    }
+
+    /**
+     * 构造函数 / Constructor
+     *
+     * @param seed 随机种子 / Random seed
+     * @param count 生成的行数 / Number of rows to generate
+     * @param shrinkBudget 最多插入的缩减候选行数量 / Maximum number of shrink candidate rows to insert
+     * @param generator 原始输入生成函数 / Raw input generator
+     * @param shrinker 由失败的原始输入生成缩减候选的函数 / Produces shrink candidates from a failing raw input
+     * @param materializer 由原始输入生成最终参数（如追加期望结果列）的函数 / Builds final parameters from raw input (e.g. appends expected result)
+     * @param rowFilter 按行序号（从0开始）过滤生成行，如GetTestData::isInShard / Filters generated rows by index (from 0), e.g. GetTestData::isInShard
+     */
+    public RandomRows(long seed, long count, int shrinkBudget, Function<Random, Object[]> generator,
+                      Function<Object[], List<Object[]>> shrinker, Function<Object[], Object[]> materializer,
+                      LongPredicate rowFilter) {
+        this.rowFilter = rowFilter;
+        this.random = new Random(seed);
+        this.remaining = count;
+        this.shrinkBudget = shrinkBudget;
+        this.generator = generator;
+        this.shrinker = shrinker;
+        this.materializer = materializer;
+        this.nextGenerated = generate();
+        ACTIVE.add(this);
+        LOGGER.info("随机测试数据种子/Random test data seed: {}", seed);
+    }
+
+    /**
+     * 上报失败的数据行 / Reports a failing data row
+     *
+     * <p>
+     * 由测试监听器在测试方法失败时调用，参数为失败测试方法的入参。<br>
+     * Called by the test listener when a test method fails, with the failing method's parameters.
+     * </p>
+     *
+     * @param parameters 失败测试方法的入参 / Parameters of the failing test method
+     */
+    public static void reportFailure(Object[] parameters) {
+        for (RandomRows rows : ACTIVE) {
+            rows.onFailure(parameters);
+        }
+    }
+
+    /**
+     * 清除尚未结束的迭代器 / Clears unfinished iterators
+     *
+     * <p>
+     * 用于在同一个JVM中开始新的一次运行（如TestDaemon），之前运行中未取完的迭代器不再接收失败上报。<br>
+     * Used when a new run starts in the same JVM (e.g. TestDaemon), so iterators left unfinished by earlier runs no
+     * longer receive failure reports.
+     * </p>
+     */
+    public static void clearActive() {
+        ACTIVE.clear();
+    }
+
+    private synchronized void onFailure(Object[] parameters) {
+        Object[] raw = recentRows.get(new RowKey(parameters));
+        if (raw == null) {
+            return;
+        }
+        LOGGER.warn("生成数据行失败，开始缩减/Generated row failed, shrinking: {}", Arrays.toString(raw));
+
+        //缩减候选插入队首，优先执行 / Shrink candidates go to the front of the queue
+        List<Object[]> candidates = shrinker.apply(raw);
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            shrinkCandidates.addFirst(candidates.get(i));
+        }
+    }
+
+    /**
+     * 生成下一条满足过滤条件的行，被过滤的行仍会消耗随机数以保持序列一致 /
+     * Generates the next row passing the filter, filtered rows still consume random numbers to keep the sequence stable
+     */
+    private Object[] generate() {
+        while (remaining > 0) {
+            remaining--;
+            Object[] raw = generator.apply(random);
+            if (rowFilter.test(rowIndex++)) {
+                return raw;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        boolean hasNext = (shrinkBudget > 0 && !shrinkCandidates.isEmpty()) || nextGenerated != null;
+        if (!hasNext) {
+            ACTIVE.remove(this);
+        }
+        return hasNext;
+    }
+
+    @Override
+    public synchronized Object[] next() {
+        Object[] raw;
+        if (shrinkBudget > 0 && !shrinkCandidates.isEmpty()) {
+            shrinkBudget--;
+            raw = shrinkCandidates.pollFirst();
+        } else if (nextGenerated != null) {
+            raw = nextGenerated;
+            nextGenerated = generate();
+        } else {
+            throw new NoSuchElementException();
+        }
+        Object[] row = materializer.apply(raw);
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] instanceof String) {
+                //使每行的字符串参数成为独立的实例，作为该行的身份 / Makes string parameters distinct instances, identifying the row
+                row[i] = new String((String) row[i]);
+            }
+        }
+        recentRows.put(new RowKey(row), raw);
+        return row;
+    }
+
+    /**
+     * 按参数对象身份比较的行键 / Row key compared by identity of parameter objects
+     */
+    private static final class RowKey {
+        private final Object[] parameters;
+
+        RowKey(Object[] parameters) {
+            this.parameters = parameters.clone();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RowKey) || ((RowKey) other).parameters.length != parameters.length) {
+                return false;
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                if (((RowKey) other).parameters[i] != parameters[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (Object parameter : parameters) {
+                hash = 31 * hash + System.identityHashCode(parameter);
+            }
+            return hash;
+        }
+    }
+}
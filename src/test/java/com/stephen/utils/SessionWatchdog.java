@@ -0,0 +1,503 @@
+package com.stephen.utils;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 浏览器会话看门狗 / Browser Session Watchdog
+ *
+ * <p>
+ * 跟踪DriverUtils创建的每个存活会话，每个测试方法开始时为其所在线程的会话重新计算时间预算
+ * （session.budget.seconds，默认300秒，0表示不启用）。会话超出预算时：<br>
+ * 1. 记录所属线程的调用栈，并在限定时间内（session.screenshot.seconds，默认5秒）尝试截图<br>
+ * 2. 强制结束chromedriver及浏览器的进程树（按chromedriver端口和会话标记参数查找进程，Windows使用PowerShell和taskkill），
+ * 并停止ChromeDriverService<br>
+ * 3. 所属线程正在运行测试方法时中断该线程，使测试尽快结束；测试方法返回后（结果监听器运行前）本监听器把其结果标记为失败
+ * （即使测试捕获了中断异常并正常返回），并清除线程的中断标志，使后续测试不受影响。
+ * 线程不在运行测试方法时（如配置方法、TestDaemon的请求处理线程）不中断，只结束进程<br>
+ * 4. 把事件追加到target/watchdog-events.log（session.watchdog.log）<br>
+ * DriverUtils.quitDriver()通过quit()关闭浏览器，超过session.quit.seconds（默认30秒）时同样强制结束进程树。<br>
+ * Tracks every live session created by DriverUtils, renewing the time budget (session.budget.seconds, 300 s by
+ * default, 0 disables the watchdog) of the sessions of a thread whenever a test method starts on it. When a session
+ * overruns its budget:<br>
+ * 1. Records the stack of the owner thread and tries to take a screenshot within a time limit
+ * (session.screenshot.seconds, 5 s by default)<br>
+ * 2. Kills the process tree of chromedriver and the browser (processes are found by chromedriver port and the
+ * session marker argument, PowerShell and taskkill on Windows), and stops the ChromeDriverService<br>
+ * 3. Interrupts the owner thread while it runs a test method, so the test ends early; once the test method returns
+ * (before result listeners run) this listener marks its result as failed (even if the test caught the interruption
+ * and returned normally) and clears the thread's interrupt flag, so later tests are not affected. Threads not running
+ * a test method (e.g. configuration methods, the TestDaemon request thread) are not interrupted, only the processes
+ * are killed<br>
+ * 4. Appends the event to target/watchdog-events.log (session.watchdog.log)<br>
+ * DriverUtils.quitDriver() closes browsers through quit(), which kills the process tree as well when quitting takes
+ * longer than session.quit.seconds (30 s by default).
+ * </p>
+ */
+public class SessionWatchdog implements ITestListener, IInvokedMethodListener {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("SessionWatchdog.class");
+
+    //每个测试方法的时间预算（秒） / Time budget per test method (seconds)
+    public static final long BUDGET_SECONDS = Long.getLong("session.budget.seconds", 300L);
+
+    private static final long SCREENSHOT_SECONDS = Long.getLong("session.screenshot.seconds", 5L);
+    private static final long QUIT_SECONDS = Long.getLong("session.quit.seconds", 30L);
+    private static final File EVENT_LOG = new File(System.getProperty("session.watchdog.log", "target/watchdog-events.log"));
+
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
+
+    //存活的会话 / Live sessions
+    private static final Map<WebDriver, Session> SESSIONS = new ConcurrentHashMap<>();
+
+    //本地会话的进程信息 / Process information of local sessions
+    private static final Map<WebDriver, Processes> PROCESSES =
+            Collections.synchronizedMap(new WeakHashMap<WebDriver, Processes>());
+
+    //正在运行测试方法的线程，中断只发生在测试方法运行期间 / Threads running a test method, interrupts only happen while one runs
+    private static final Set<Thread> RUNNING = new HashSet<>();
+
+    //会话被回收的线程及被回收时运行的测试，由RUNNING的锁保护 / Threads whose session was reclaimed and the test running at the time, guarded by the lock of RUNNING
+    private static final Map<Thread, String> RECLAIMED = new HashMap<>();
+
+    //执行截图、关闭浏览器等可能阻塞的操作 / Runs operations that may block, such as screenshots and quitting
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "session-watchdog-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static ScheduledExecutorService monitor;
+
+    /**
+     * 测试方法开始时重新计算当前线程会话的时间预算 / Renews the budget of the current thread's sessions when a test starts
+     *
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void onTestStart(ITestResult result) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(BUDGET_SECONDS);
+        for (Session session : SESSIONS.values()) {
+            if (session.owner == Thread.currentThread()) {
+                session.deadline = deadline;
+                session.test = testName(result);
+            }
+        }
+    }
+
+    /**
+     * 测试方法开始运行 / A test method starts running
+     *
+     * @param method 调用的方法 / Invoked method
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        if (method.isTestMethod()) {
+            synchronized (RUNNING) {
+                RUNNING.add(Thread.currentThread());
+            }
+        }
+    }
+
+    /**
+     * 会话在测试期间被回收时把测试标记为失败 / Fails the test when its session was reclaimed during the test
+     *
+     * <p>
+     * 在结果监听器运行前执行。测试可能捕获了中断异常并正常返回，因此在这里显式设置失败状态和原因，并清除中断标志。<br>
+     * Runs before result listeners. The test may have caught the interruption and returned normally, so the failure
+     * status and cause are set explicitly here, and the interrupt flag is cleared.
+     * </p>
+     *
+     * @param method 调用的方法 / Invoked method
+     * @param result 测试结果 / Test result
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        String test;
+        synchronized (RUNNING) {
+            RUNNING.remove(Thread.currentThread());
+            test = RECLAIMED.remove(Thread.currentThread());
+            if (test != null) {
+                Thread.interrupted();
+            }
+        }
+        if (test != null && result.getStatus() == ITestResult.SUCCESS) {
+            result.setStatus(ITestResult.FAILURE);
+            result.setThrowable(new IllegalStateException("会话超出时间预算，已被看门狗回收/Session overran its budget of "
+                    + BUDGET_SECONDS + " s and was reclaimed by the watchdog: " + test));
+        }
+    }
+
+    /**
+     * 生成会话标记参数 / Creates a session marker argument
+     *
+     * <p>
+     * 作为浏览器启动参数传入，用于在进程列表中找到该会话的浏览器进程。<br>
+     * Passed as a browser argument, used to find the session's browser process in the process list.
+     * </p>
+     *
+     * @return 会话标记（不含前导--） / Session marker (without leading --)
+     */
+    public static String newMarker() {
+        return "watchdog-session=" + UUID.randomUUID();
+    }
+
+    /**
+     * 绑定本地会话的进程信息 / Binds process information of a local session
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @param service 会话的chromedriver服务 / The session's chromedriver service
+     * @param marker 会话标记 / Session marker
+     */
+    public static void bindProcesses(WebDriver driver, ChromeDriverService service, String marker) {
+        PROCESSES.put(driver, new Processes(service, marker));
+    }
+
+    /**
+     * 开始跟踪会话 / Starts tracking a session
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     */
+    public static void register(WebDriver driver) {
+        if (BUDGET_SECONDS <= 0) {
+            return;
+        }
+        ITestResult current = Reporter.getCurrentTestResult();
+        Session session = new Session(driver, Thread.currentThread(),
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(BUDGET_SECONDS));
+        session.test = current == null ? Thread.currentThread().getName() : testName(current);
+        SESSIONS.put(driver, session);
+        startMonitor();
+    }
+
+    /**
+     * 停止跟踪会话 / Stops tracking a session
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     */
+    public static void unregister(WebDriver driver) {
+        SESSIONS.remove(driver);
+    }
+
+    /**
+     * 会话是否已被看门狗强制结束 / Whether the session has been killed by the watchdog
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     * @return 已被强制结束时返回true / true if killed
+     */
+    public static boolean isKilled(WebDriver driver) {
+        Session session = SESSIONS.get(driver);
+        return session != null && session.killed;
+    }
+
+    /**
+     * 在限定时间内关闭浏览器 / Quits a browser within a time limit
+     *
+     * <p>
+     * 超时或关闭失败时强制结束会话的进程树。<br>
+     * Kills the session's process tree when quitting times out or fails.
+     * </p>
+     *
+     * @param driver 浏览器实例对象 / WebDriver instance
+     */
+    public static void quit(WebDriver driver) {
+        Future<?> quitting = WORKERS.submit(driver::quit);
+        try {
+            quitting.get(QUIT_SECONDS, TimeUnit.SECONDS);
+            PROCESSES.remove(driver);
+            return;
+        } catch (TimeoutException e) {
+            quitting.cancel(true);
+            LOGGER.error("关闭浏览器超时，强制结束进程/Quitting browser timed out, killing processes");
+            recordEvent("quit timeout", sessionOf(driver), null, null);
+        } catch (ExecutionException e) {
+            LOGGER.warn("关闭浏览器失败，强制结束进程/Fail to quit browser, killing processes: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        killProcesses(driver);
+    }
+
+    private static synchronized void startMonitor() {
+        if (monitor != null) {
+            return;
+        }
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(SessionWatchdog::check, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 检查超出预算的会话 / Checks sessions that overran their budget
+     */
+    private static void check() {
+        long now = System.currentTimeMillis();
+        for (final Session session : SESSIONS.values()) {
+            if (!session.killed && now > session.deadline) {
+                session.killed = true;
+                WORKERS.submit(() -> reclaim(session));
+            }
+        }
+    }
+
+    /**
+     * 收集诊断信息并回收超出预算的会话 / Captures diagnostics and reclaims an overrunning session
+     */
+    private static void reclaim(Session session) {
+        try {
+            //先记录调用栈，再结束进程 / Stack first, before the processes are killed
+            StackTraceElement[] stack = session.owner.getStackTrace();
+            File screenshot = screenshot(session);
+            killProcesses(session.driver);
+            synchronized (RUNNING) {
+                //只在测试方法运行期间中断，中断标志在afterInvocation()中清除 / Interrupts only during a test method, afterInvocation() clears the flag
+                if (RUNNING.contains(session.owner)) {
+                    RECLAIMED.put(session.owner, session.test);
+                    session.owner.interrupt();
+                }
+            }
+            LOGGER.error("会话超出时间预算，已强制结束/Session overran its budget and was killed: {} ({} s)",
+                    session.test, BUDGET_SECONDS);
+            recordEvent("budget overrun", session, stack, screenshot);
+        } catch (RuntimeException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("回收会话异常/Fail to reclaim session", e);
+        }
+    }
+
+    /**
+     * 在限定时间内截图 / Takes a screenshot within a time limit
+     */
+    private static File screenshot(Session session) {
+        if (!(session.driver instanceof TakesScreenshot)) {
+            return null;
+        }
+        Future<byte[]> capture = WORKERS.submit(() -> ((TakesScreenshot) session.driver).getScreenshotAs(OutputType.BYTES));
+        try {
+            byte[] png = capture.get(SCREENSHOT_SECONDS, TimeUnit.SECONDS);
+            File file = new File(EVENT_LOG.getAbsoluteFile().getParentFile(), "watchdog-" + sessionId(session) + ".png");
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(png);
+            }
+            return file;
+        } catch (TimeoutException e) {
+            capture.cancel(true);
+        } catch (ExecutionException | IOException e) {
+            LOGGER.warn("看门狗截图失败/Watchdog screenshot failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * 强制结束会话的进程树并停止chromedriver服务 / Kills the session's process tree and stops the chromedriver service
+     */
+    private static void killProcesses(WebDriver driver) {
+        Processes processes = PROCESSES.remove(driver);
+        if (processes == null) {
+            return;
+        }
+        //chromedriver是浏览器的父进程，结束其进程树即可同时结束浏览器；再按标记查找已脱离的浏览器进程
+        //chromedriver is the browser's parent, killing its tree kills the browser too; then browsers left detached are found by marker
+        //端口号之后必须是空格或命令行结尾，避免--port=9515误匹配--port=95150
+        //The port must be followed by a space or the end of the command line, so --port=9515 cannot match --port=95150
+        if (WINDOWS) {
+            killProcessTree("*chromedriver*--port=" + processes.port);
+            killProcessTree("*chromedriver*--port=" + processes.port + " *");
+        } else {
+            killProcessTree("chromedriver.*--port=" + processes.port + "( |$)");
+        }
+        killProcessTree(WINDOWS ? "*" + processes.marker + "*" : processes.marker);
+        try {
+            processes.service.stop();
+        } catch (RuntimeException e) {
+            LOGGER.warn("停止chromedriver服务失败/Fail to stop chromedriver service: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 结束命令行匹配的进程及其全部子进程 / Kills processes whose command line matches, with all their descendants
+     *
+     * @param pattern pgrep -f的正则表达式，Windows上为-like通配符 / pgrep -f regex, -like wildcard on Windows
+     */
+    private static void killProcessTree(String pattern) {
+        if (WINDOWS) {
+            for (String pid : exec("powershell", "-NoProfile", "-Command",
+                    "Get-CimInstance Win32_Process | Where-Object { $_.CommandLine -like '" + pattern
+                            + "' -and $_.ProcessId -ne $PID } | ForEach-Object { $_.ProcessId }")) {
+                exec("taskkill", "/F", "/T", "/PID", pid);
+            }
+            return;
+        }
+        List<String> pids = new ArrayList<>();
+        for (String pid : exec("pgrep", "-f", pattern)) {
+            collectTree(pid, pids);
+        }
+        if (!pids.isEmpty()) {
+            List<String> command = new ArrayList<>(Arrays.asList("kill", "-9"));
+            command.addAll(pids);
+            exec(command.toArray(new String[0]));
+        }
+    }
+
+    private static void collectTree(String pid, List<String> pids) {
+        if (pids.contains(pid)) {
+            return;
+        }
+        pids.add(pid);
+        for (String child : exec("pgrep", "-P", pid)) {
+            collectTree(child, pids);
+        }
+    }
+
+    /**
+     * 执行系统命令并返回非空输出行 / Runs an OS command and returns its non-empty output lines
+     */
+    private static List<String> exec(String... command) {
+        List<String> lines = new ArrayList<>();
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        lines.add(line.trim());
+                    }
+                }
+            }
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("执行命令失败/Fail to run command {}: {}", Arrays.toString(command), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return lines;
+    }
+
+    /**
+     * 追加看门狗事件 / Appends a watchdog event
+     */
+    private static synchronized void recordEvent(String event, Session session, StackTraceElement[] stack, File screenshot) {
+        File parent = EVENT_LOG.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            LOGGER.error("无法创建目录/Cannot create directory {}", parent.getPath());
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(EVENT_LOG, true), StandardCharsets.UTF_8))) {
+            out.println(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + " " + event
+                    + (session == null ? "" : " test=" + session.test + " session=" + sessionId(session)
+                    + " thread=" + session.owner.getName()
+                    + " age=" + (System.currentTimeMillis() - session.createdAt) / 1000 + "s")
+                    + " budget=" + BUDGET_SECONDS + "s"
+                    + (screenshot == null ? "" : " screenshot=" + screenshot.getPath()));
+            if (stack != null) {
+                for (StackTraceElement element : stack) {
+                    out.println("\tat " + element);
+                }
+            }
+        } catch (IOException e) {
+            //发生异常时记录日志信息 / Logs error message when exception occurs
+            LOGGER.error("写入看门狗事件异常/Fail to write watchdog event", e);
+        }
+    }
+
+    private static Session sessionOf(WebDriver driver) {
+        return SESSIONS.get(driver);
+    }
+
+    private static String sessionId(Session session) {
+        if (session.driver instanceof RemoteWebDriver && ((RemoteWebDriver) session.driver).getSessionId() != null) {
+            return ((RemoteWebDriver) session.driver).getSessionId().toString();
+        }
+        return Integer.toHexString(System.identityHashCode(session.driver));
+    }
+
+    private static String testName(ITestResult result) {
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+    }
+
+    /**
+     * 存活会话 / Live session
+     */
+    private static class Session {
+        private final WebDriver driver;
+        private final Thread owner;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long deadline;
+        private volatile String test;
+        private volatile boolean killed;
+
+        Session(WebDriver driver, Thread owner, long deadline) {
+            this.driver = driver;
+            this.owner = owner;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 本地会话的进程信息 / Process information of a local session
+     */
+    private static class Processes {
+        private final ChromeDriverService service;
+        private final String marker;
+        private final int port;
+
+        Processes(ChromeDriverService service, String marker) {
+            this.service = service;
+            this.marker = marker;
+            this.port = service.getUrl().getPort();
+        }
+    }
+}
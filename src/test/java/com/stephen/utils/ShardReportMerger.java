@@ -0,0 +1,192 @@
+package com.stephen.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+
+/**
+ * 分片测试报告合并工具类 / Shard Test Report Merger Utility Class
+ *
+ * <p>
+ * 把各分片进程生成的testng-results.xml（target/surefire-reports/shard-&lt;序号&gt;目录）合并为一个套件结果，
+ * 汇总通过、失败、跳过数量并保留所有分片的suite节点。必须指定分片总数N（-Dshard.count），
+ * 报告目录中必须恰好是本次运行的shard-0到shard-(N-1)：以下情况均视为运行不完整并以非0状态退出：<br>
+ * 1. 存在失败用例<br>
+ * 2. 缺少某个分片的目录或报告（分片未启动或崩溃）<br>
+ * 3. 存在序号超出范围的shard-*目录（上次以不同分片总数运行留下的）<br>
+ * 4. 指定-Dshard.since=&lt;启动分片前的时间戳（毫秒）&gt;时，报告早于该时间（上次运行留下的）<br>
+ * Merges the testng-results.xml files written by each shard process (target/surefire-reports/shard-&lt;index&gt;
+ * directories) into a single suite result, summing passed/failed/skipped counts and keeping the suite nodes of all
+ * shards. The shard count N is required (-Dshard.count), and the reports directory must hold exactly shard-0 to
+ * shard-(N-1) of the current run; the run counts as incomplete and the merger exits non-zero when:<br>
+ * 1. Any test failed<br>
+ * 2. A shard directory or report is missing (the shard never started or crashed)<br>
+ * 3. A shard-* directory has an index out of range (left by an earlier run with a different shard count)<br>
+ * 4. With -Dshard.since=&lt;timestamp in milliseconds taken before starting the shards&gt;, a report is older than
+ * that (left by an earlier run)
+ * </p>
+ *
+ * <p>
+ * 用法 / Usage:<br>
+ * java -cp target/test-classes:&lt;test classpath&gt; -Dshard.count=&lt;N&gt; [-Dshard.since=&lt;millis&gt;]
+ * com.stephen.utils.ShardReportMerger [reportsDir] [outputFile]
+ * </p>
+ */
+public class ShardReportMerger {
+    //日志器 / Logger
+    public static final Logger LOGGER = LoggerFactory.getLogger("ShardReportMerger.class");
+
+    //汇总的计数属性 / Summed count attributes
+    private static final String[] COUNT_ATTRIBUTES = {"total", "passed", "failed", "skipped", "ignored"};
+
+    /**
+     * 私有构造函数 / Private constructor
+     * <p>
+     * 防止类被实例化。<br>
+     * Prevents class instantiation.
+     * </p>
+     */
+    private ShardReportMerger() {
+
+    }
+
+    /**
+     * 命令行入口 / Command line entry
+     *
+     * @param args 报告目录（默认target/surefire-reports）和输出文件（默认&lt;报告目录&gt;/merged/testng-results.xml） /
+     *             Reports directory (target/surefire-reports by default) and output file
+     *             (&lt;reports directory&gt;/merged/testng-results.xml by default)
+     * @throws Exception 读写报告失败时抛出 / Thrown when reading or writing reports fails
+     */
+    public static void main(String[] args) throws Exception {
+        Integer shardCount = Integer.getInteger("shard.count");
+        if (shardCount == null || shardCount < 1) {
+            throw new IllegalArgumentException("需要指定分片总数/Shard count required: -Dshard.count=<N>");
+        }
+        long since = Long.getLong("shard.since", 0L);
+        File reportsDir = new File(args.length > 0 ? args[0] : "target/surefire-reports");
+        File output = args.length > 1 ? new File(args[1]) : new File(reportsDir, "merged/testng-results.xml");
+        Document merged = merge(reportsDir, shardCount, since);
+        write(merged, output);
+        Element root = merged.getDocumentElement();
+        LOGGER.info("合并分片报告/Merged shard reports: total={}, passed={}, failed={}, skipped={}, "
+                        + "incomplete shards={} -> {}",
+                root.getAttribute("total"), root.getAttribute("passed"), root.getAttribute("failed"),
+                root.getAttribute("skipped"), root.getAttribute("incomplete-shards"), output.getPath());
+        //存在失败用例或分片不完整时以非0状态退出 / Exit non-zero on failed tests or incomplete shards
+        if (!"0".equals(root.getAttribute("failed")) || !"0".equals(root.getAttribute("incomplete-shards"))) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 合并分片报告 / Merges shard reports
+     *
+     * <p>
+     * 缺失、过期或多余的分片计入根节点的incomplete-shards属性。<br>
+     * Missing, stale or unexpected shards are counted in the incomplete-shards attribute of the root node.
+     * </p>
+     *
+     * @param reportsDir 包含shard-*子目录的报告目录 / Reports directory containing shard-* sub directories
+     * @param shardCount 分片总数 / Shard count
+     * @param since 报告的最早修改时间（毫秒），0表示不检查 / Earliest modification time of reports (milliseconds), 0 skips the check
+     * @return 合并后的testng-results文档 / Merged testng-results document
+     * @throws Exception 读取报告失败时抛出 / Thrown when reading reports fails
+     */
+    public static Document merge(File reportsDir, int shardCount, long since) throws Exception {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document merged = builder.newDocument();
+        Element mergedRoot = merged.createElement("testng-results");
+        merged.appendChild(mergedRoot);
+        long[] counts = new long[COUNT_ATTRIBUTES.length];
+        int incompleteShards = 0;
+
+        //上次以更多分片运行留下的目录 / Directories left by an earlier run with more shards
+        File[] shardDirs = reportsDir.listFiles(file -> file.isDirectory() && file.getName().startsWith("shard-"));
+        if (shardDirs != null) {
+            for (File shardDir : shardDirs) {
+                if (!isExpectedShard(shardDir.getName(), shardCount)) {
+                    LOGGER.error("多余的分片报告目录/Unexpected shard report directory: {}", shardDir.getPath());
+                    incompleteShards++;
+                }
+            }
+        }
+
+        for (int index = 0; index < shardCount; index++) {
+            File shardDir = new File(reportsDir, "shard-" + index);
+            File results = new File(shardDir, "testng-results.xml");
+            if (!results.isFile()) {
+                //分片未启动或进程崩溃时没有报告 / A shard that never started or crashed leaves no report
+                LOGGER.error("分片报告缺失/Missing shard report: {}", results.getPath());
+                incompleteShards++;
+                continue;
+            }
+            if (results.lastModified() < since) {
+                LOGGER.error("分片报告早于本次运行/Shard report older than this run: {}", results.getPath());
+                incompleteShards++;
+                continue;
+            }
+            Element shardRoot = builder.parse(results).getDocumentElement();
+            for (int i = 0; i < COUNT_ATTRIBUTES.length; i++) {
+                String value = shardRoot.getAttribute(COUNT_ATTRIBUTES[i]);
+                counts[i] += value.isEmpty() ? 0 : Long.parseLong(value);
+            }
+
+            //保留各分片的suite节点，以分片名区分 / Keep suite nodes of each shard, tagged with shard name
+            NodeList children = shardRoot.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child instanceof Element && "suite".equals(child.getNodeName())) {
+                    Element suite = (Element) merged.importNode(child, true);
+                    suite.setAttribute("shard", shardDir.getName());
+                    mergedRoot.appendChild(suite);
+                }
+            }
+        }
+
+        for (int i = 0; i < COUNT_ATTRIBUTES.length; i++) {
+            mergedRoot.setAttribute(COUNT_ATTRIBUTES[i], String.valueOf(counts[i]));
+        }
+        mergedRoot.setAttribute("incomplete-shards", String.valueOf(incompleteShards));
+        return merged;
+    }
+
+    /**
+     * 目录名是否为shard-0到shard-(N-1)之一 / Whether a directory name is one of shard-0 to shard-(N-1)
+     */
+    private static boolean isExpectedShard(String name, int shardCount) {
+        String index = name.substring("shard-".length());
+        for (int i = 0; i < shardCount; i++) {
+            if (index.equals(String.valueOf(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写出合并后的报告 / Writes merged report
+     */
+    private static void write(Document document, File output) throws Exception {
+        File parent = output.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IllegalStateException("无法创建目录/Cannot create directory " + parent.getPath());
+        }
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.transform(new DOMSource(document), new StreamResult(output));
+    }
+}
@@ -0,0 +1,46 @@
+package com.stephen.utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 分片测试集过滤监听器 / Shard Test Set Filter Listener
+ *
+ * <p>
+ * 分片运行时（shard.count大于1），声明了参数shard.once=true的测试集（如不依赖测试数据的单元测试）只在0号分片中运行，
+ * 其他分片在套件开始前将其移除，因此合并后的报告中这些测试只出现一次，也不会被数据分片影响。<br>
+ * In sharded runs (shard.count greater than 1), test sets declaring the parameter shard.once=true (e.g. unit tests
+ * that do not use test data) only run in shard 0; the other shards remove them before the suite starts, so these
+ * tests appear once in the merged report and are never affected by data sharding.
+ * </p>
+ */
+public class ShardSuiteFilter implements IAlterSuiteListener {
+
+    /**
+     * 只在一个分片中运行的测试集参数 / Parameter of test sets that run in a single shard
+     */
+    public static final String ONCE_PARAMETER = "shard.once";
+
+    /**
+     * 移除不属于当前分片的测试集 / Removes test sets that do not belong to current shard
+     *
+     * @param suites 测试套件 / Test suites
+     */
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (GetTestData.SHARD_COUNT <= 1 || GetTestData.SHARD_INDEX == 0) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            for (Iterator<XmlTest> tests = suite.getTests().iterator(); tests.hasNext(); ) {
+                if (Boolean.parseBoolean(tests.next().getParameter(ONCE_PARAMETER))) {
+                    tests.remove();
+                }
+            }
+        }
+    }
+}
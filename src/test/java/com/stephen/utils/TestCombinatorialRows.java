@@ -0,0 +1,108 @@
+package com.stephen.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 组合测试数据生成的单元测试 / Combinatorial Test Data Generation Unit Tests
+ * <p>
+ * 验证全组合展开的行数和取值，以及成对组合展开覆盖任意两列的所有取值对<br>
+ * Verifies row count and values of the cartesian expansion, and that the pairwise expansion
+ * covers every value pair of any two columns.
+ * </p>
+ */
+public class TestCombinatorialRows {
+
+    //混合大小的取值域 / Value domains of mixed sizes
+    private static final List<List<Object>> DOMAINS = Arrays.asList(
+            CombinatorialRows.domain("a", "b", "c", "d", "e", "f"),
+            CombinatorialRows.domain(1, 2, 3, 4, 5, 6, 7),
+            CombinatorialRows.domain("x", "y", "z", "w"),
+            CombinatorialRows.domain(true, false));
+
+    /**
+     * 全组合展开生成各列取值的乘积数量的不重复行 / Cartesian expansion yields product-of-sizes distinct rows
+     */
+    @Test(groups = "Unit")
+    public void testCartesianRows() {
+        List<Object[]> rows = drain(CombinatorialRows.cartesian(DOMAINS));
+
+        Assert.assertEquals(rows.size(), 6 * 7 * 4 * 2);
+        Set<List<Object>> distinct = new HashSet<>();
+        for (Object[] row : rows) {
+            distinct.add(Arrays.asList(row));
+        }
+        Assert.assertEquals(distinct.size(), rows.size());
+        Assert.assertEquals(rows.get(0), new Object[]{"a", 1, "x", true});
+        Assert.assertEquals(rows.get(rows.size() - 1), new Object[]{"f", 7, "w", false});
+    }
+
+    /**
+     * 存在空的取值域时不生成任何行 / No rows are generated when any domain is empty
+     */
+    @Test(groups = "Unit")
+    public void testCartesianWithEmptyDomain() {
+        List<List<Object>> domains = Arrays.asList(CombinatorialRows.domain("a"), CombinatorialRows.domain());
+        Assert.assertFalse(CombinatorialRows.cartesian(domains).hasNext());
+        Assert.assertFalse(CombinatorialRows.pairwise(domains).hasNext());
+    }
+
+    /**
+     * 成对组合展开覆盖任意两列的所有取值对，且行数少于全组合 /
+     * Pairwise expansion covers every value pair of any two columns with fewer rows than the cartesian one
+     */
+    @Test(groups = "Unit")
+    public void testPairwiseCoversAllPairs() {
+        List<Object[]> rows = drain(CombinatorialRows.pairwise(DOMAINS));
+
+        for (int i = 0; i < DOMAINS.size(); i++) {
+            for (int j = i + 1; j < DOMAINS.size(); j++) {
+                for (Object a : DOMAINS.get(i)) {
+                    for (Object b : DOMAINS.get(j)) {
+                        Assert.assertTrue(containsPair(rows, i, a, j, b),
+                                "未覆盖的取值对/Uncovered pair: column " + i + "=" + a + ", column " + j + "=" + b);
+                    }
+                }
+            }
+        }
+        //至少需要最大两列取值数的乘积行 / At least the product of the two largest domain sizes is needed
+        Assert.assertTrue(rows.size() >= 6 * 7, "行数/Rows: " + rows.size());
+        Assert.assertTrue(rows.size() < 6 * 7 * 4 * 2, "行数/Rows: " + rows.size());
+    }
+
+    /**
+     * 少于两列时成对组合等同于全组合 / Pairwise equals cartesian for fewer than two columns
+     */
+    @Test(groups = "Unit")
+    public void testPairwiseWithSingleColumn() {
+        List<List<Object>> domains = Arrays.asList(CombinatorialRows.domain("a", "b", "c"));
+        List<Object[]> rows = drain(CombinatorialRows.pairwise(domains));
+
+        Assert.assertEquals(rows.size(), 3);
+        Assert.assertEquals(rows.get(2), new Object[]{"c"});
+    }
+
+    private static boolean containsPair(List<Object[]> rows, int columnA, Object valueA, int columnB, Object valueB) {
+        for (Object[] row : rows) {
+            if (row[columnA].equals(valueA) && row[columnB].equals(valueB)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Object[]> drain(Iterator<Object[]> iterator) {
+        List<Object[]> rows = new ArrayList<>();
+        while (iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+        return rows;
+    }
+}
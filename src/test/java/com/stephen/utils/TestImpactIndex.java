@@ -0,0 +1,416 @@
+package com.stephen.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 测试影响索引 / Test Impact Index
+ *
+ * <p>
+ * 解析com.stephen.testcases、com.stephen.operation和com.stephen.page包的源码，记录每个测试方法（类名.方法名）
+ * 触达的符号：测试类及测试方法本身、调用的页面操作类及其方法、这些方法使用的页面元素定位器（如CookieCheckPage.CHECK_COOKIE_BUTTON）。
+ * 测试类中非测试方法（如@BeforeMethod）的调用，以及页面操作类中非public方法（如getPageUrl()）的引用，
+ * 视为该类所有测试方法共同触达。<br>
+ * Parses the sources of the com.stephen.testcases, com.stephen.operation and com.stephen.page packages and records
+ * the symbols each test method (Class.method) reaches: the test class and method themselves, the operation classes
+ * and methods it calls, and the page locators those methods use (e.g. CookieCheckPage.CHECK_COOKIE_BUTTON).
+ * Calls from non-test methods of a test class (e.g. @BeforeMethod) and references from non-public methods of an
+ * operation class (e.g. getPageUrl()) are treated as reached by every test method of the class.
+ * </p>
+ *
+ * <p>
+ * 变更可以是文件路径、类名或类名.成员名。base、utils等其他包的源码，以及testng.xml、pom.xml、测试数据等
+ * 非文档文件的变更都需要运行全部测试。<br>
+ * A change is a file path, a class name or Class.member. Changes to sources of other packages such as base and
+ * utils, and to non-documentation files such as testng.xml, pom.xml and test data, require running all tests.
+ * </p>
+ */
+public class TestImpactIndex {
+
+    //被索引的包目录 / Indexed package directories
+    private static final String TESTCASES = "com/stephen/testcases";
+    private static final String OPERATION = "com/stephen/operation";
+    private static final String PAGE = "com/stephen/page";
+
+    //需要运行全部测试的标记 / Marker for changes requiring a full run
+    private static final String FULL_RUN = "*";
+
+    //以关键字以外的单词开头 / Starts a word that is not a keyword
+    private static final String NOT_KEYWORD = "\\b(?!(?:if|for|while|switch|catch|synchronized|return|new|else|do|try|throw)\\b)";
+
+    //方法或构造函数声明，访问修饰符可省略（包级私有） / Method or constructor declaration, the access modifier is optional (package-private)
+    private static final Pattern METHOD = Pattern.compile(
+            "(?:\\b(?:public|protected|private|static|final|synchronized|abstract|native|default)\\s+)*(?:<[^>]*>\\s*)?"
+            + "(?:" + NOT_KEYWORD + "[\\w.$]+(?:\\s*<[^;{}()=]*?>)?(?:\\s*\\[\\s*\\])*\\s+)?"
+            + NOT_KEYWORD + "(\\w+)\\s*\\([^)]*\\)\\s*(?:throws\\s+[\\w.,\\s]+)?\\{");
+
+    //定位器字段声明 / Locator field declaration
+    private static final Pattern LOCATOR = Pattern.compile("static\\s+final\\s+\\w+\\s+(\\w+)\\s*=");
+
+    //方法调用 / Method call
+    private static final Pattern CALL = Pattern.compile("\\b(\\w+)\\s*\\.\\s*(\\w+)\\s*\\(");
+
+    //每个测试方法触达的符号 / Symbols reached by each test method
+    private final Map<String, Set<String>> reached = new LinkedHashMap<>();
+
+    //已索引的类名 / Indexed class names
+    private final Set<String> classes = new TreeSet<>();
+
+    private TestImpactIndex() {
+
+    }
+
+    /**
+     * 从源码目录构建索引 / Builds the index from a source root
+     *
+     * @param sourceRoot 源码根目录（如src/test/java） / Source root (e.g. src/test/java)
+     * @return 测试影响索引 / Test impact index
+     * @throws IOException 读取源码失败时抛出 / Thrown when reading sources fails
+     */
+    public static TestImpactIndex build(File sourceRoot) throws IOException {
+        TestImpactIndex index = new TestImpactIndex();
+
+        //页面元素类：类名 -> 定位器字段 / Page classes: class name -> locator fields
+        Map<String, Set<String>> pages = new HashMap<>();
+        for (File file : sources(new File(sourceRoot, PAGE))) {
+            Set<String> fields = new LinkedHashSet<>();
+            Matcher matcher = LOCATOR.matcher(read(file));
+            while (matcher.find()) {
+                fields.add(matcher.group(1));
+            }
+            pages.put(className(file), fields);
+        }
+        index.classes.addAll(pages.keySet());
+
+        //页面操作类：类名.方法名 -> 触达的页面符号，类名 -> 类级别触达的页面符号
+        //Operation classes: Class.method -> reached page symbols, class name -> class-level reached page symbols
+        Map<String, Set<String>> operationMethods = new HashMap<>();
+        Map<String, Set<String>> operationShared = new HashMap<>();
+        for (File file : sources(new File(sourceRoot, OPERATION))) {
+            String name = className(file);
+            Set<String> shared = new LinkedHashSet<>();
+            shared.add(name);
+            for (Member member : members(read(file))) {
+                Set<String> symbols = pageSymbols(member.body, pages);
+                if (member.isPublic && !member.name.equals(name)) {
+                    symbols.add(name + "." + member.name);
+                    operationMethods.put(name + "." + member.name, symbols);
+                } else {
+                    shared.addAll(symbols);
+                }
+            }
+            operationShared.put(name, shared);
+        }
+        index.classes.addAll(operationShared.keySet());
+
+        //测试类 / Test classes
+        for (File file : sources(new File(sourceRoot, TESTCASES))) {
+            String name = className(file);
+            String source = stripCommentsAndStrings(read(file));
+            index.classes.add(name);
+
+            //页面操作类型的变量 / Variables of operation types
+            Map<String, String> variables = new HashMap<>();
+            for (String operation : operationShared.keySet()) {
+                variables.put(operation, operation);
+                Matcher matcher = Pattern.compile("\\b" + operation + "\\s+(\\w+)\\b").matcher(source);
+                while (matcher.find()) {
+                    variables.put(matcher.group(1), operation);
+                }
+            }
+
+            List<Member> members = members(source);
+            Set<String> shared = new LinkedHashSet<>();
+            shared.add(name);
+            for (Member member : members) {
+                if (!member.isTest) {
+                    shared.addAll(reachedBy(member.body, variables, operationMethods, operationShared, pages));
+                }
+            }
+            for (Member member : members) {
+                if (member.isTest) {
+                    Set<String> symbols = new LinkedHashSet<>(shared);
+                    symbols.add(name + "." + member.name);
+                    symbols.addAll(reachedBy(member.body, variables, operationMethods, operationShared, pages));
+                    index.reached.put(name + "." + member.name, symbols);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取每个测试方法触达的符号 / Gets symbols reached by each test method
+     *
+     * @return 测试方法（类名.方法名）到符号的映射 / Map of test method (Class.method) to symbols
+     */
+    public Map<String, Set<String>> getReachedSymbols() {
+        return reached;
+    }
+
+    /**
+     * 变更是否需要运行全部测试 / Whether the changes require running all tests
+     *
+     * @param changes 变更（文件路径、类名或类名.成员名） / Changes (file paths, class names or Class.member)
+     * @return 需要运行全部测试时返回true / true when all tests must run
+     */
+    public boolean isFullRunRequired(Collection<String> changes) {
+        for (String change : changes) {
+            if (FULL_RUN.equals(symbolOf(change))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取受变更影响的测试方法 / Gets test methods affected by the changes
+     *
+     * @param changes 变更（文件路径、类名或类名.成员名） / Changes (file paths, class names or Class.member)
+     * @return 受影响的测试方法（类名.方法名） / Affected test methods (Class.method)
+     */
+    public Set<String> affectedTests(Collection<String> changes) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (String change : changes) {
+            String symbol = symbolOf(change);
+            if (symbol != null) {
+                symbols.add(symbol);
+            }
+        }
+        Set<String> affected = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<String>> entry : reached.entrySet()) {
+            if (!Collections.disjoint(entry.getValue(), symbols)) {
+                affected.add(entry.getKey());
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * 获取工作区相对于基准提交的变更文件 / Gets files changed in the working tree relative to a base commit
+     *
+     * <p>
+     * 包括git diff --name-only &lt;base&gt;列出的文件和未跟踪的文件。<br>
+     * Includes files listed by git diff --name-only &lt;base&gt; and untracked files.
+     * </p>
+     *
+     * @param base 基准提交 / Base commit
+     * @return 变更文件路径 / Changed file paths
+     * @throws IOException 执行git失败时抛出 / Thrown when running git fails
+     */
+    public static List<String> gitChanges(String base) throws IOException {
+        List<String> changes = new ArrayList<>();
+        changes.addAll(git("diff", "--name-only", base));
+        changes.addAll(git("ls-files", "--others", "--exclude-standard"));
+        return changes;
+    }
+
+    /**
+     * 把变更转换为符号，无关的变更返回null，需要运行全部测试时返回FULL_RUN /
+     * Converts a change to a symbol, null for irrelevant changes, FULL_RUN when all tests must run
+     */
+    private String symbolOf(String change) {
+        String value = change.trim().replace('\\', '/');
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.contains("/") || value.endsWith(".java")) {
+            if (value.endsWith(".java")) {
+                boolean indexed = value.contains(TESTCASES + "/") || value.contains(OPERATION + "/")
+                        || value.contains(PAGE + "/");
+                return indexed ? className(new File(value)) : FULL_RUN;
+            }
+            //文档变更不影响测试 / Documentation changes do not affect tests
+            return value.endsWith(".md") || value.startsWith("docs/") ? null : FULL_RUN;
+        }
+        if (value.endsWith(".md")) {
+            return null;
+        }
+        //类名或类名.成员名 / Class name or Class.member
+        String className = value.contains(".") ? value.substring(0, value.indexOf('.')) : value;
+        return classes.contains(className) ? value : FULL_RUN;
+    }
+
+    /**
+     * 代码片段直接或经由页面操作类触达的符号 / Symbols reached by a code fragment directly or through operation classes
+     */
+    private static Set<String> reachedBy(String body, Map<String, String> variables,
+                                         Map<String, Set<String>> operationMethods,
+                                         Map<String, Set<String>> operationShared, Map<String, Set<String>> pages) {
+        Set<String> symbols = pageSymbols(body, pages);
+        for (String operation : operationShared.keySet()) {
+            if (Pattern.compile("\\bnew\\s+" + operation + "\\s*\\(").matcher(body).find()) {
+                symbols.addAll(operationShared.get(operation));
+            }
+        }
+        Matcher matcher = CALL.matcher(body);
+        while (matcher.find()) {
+            String operation = variables.get(matcher.group(1));
+            if (operation != null) {
+                symbols.addAll(operationShared.get(operation));
+                Set<String> method = operationMethods.get(operation + "." + matcher.group(2));
+                if (method != null) {
+                    symbols.addAll(method);
+                }
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * 代码片段引用的页面符号 / Page symbols referenced by a code fragment
+     */
+    private static Set<String> pageSymbols(String body, Map<String, Set<String>> pages) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<String>> page : pages.entrySet()) {
+            Matcher matcher = Pattern.compile("\\b" + page.getKey() + "\\s*\\.\\s*(\\w+)").matcher(body);
+            while (matcher.find()) {
+                symbols.add(page.getKey());
+                symbols.add(page.getKey() + "." + matcher.group(1));
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * 解析类中的方法（只解析第一层，不进入方法体） / Parses methods of a class (top level only, bodies are skipped)
+     */
+    private static List<Member> members(String source) {
+        String code = stripCommentsAndStrings(source);
+        List<Member> members = new ArrayList<>();
+        int start = code.indexOf('{', code.indexOf(" class ")) + 1;
+        int previousEnd = start;
+        Matcher matcher = METHOD.matcher(code);
+        while (start > 0 && matcher.find(start)) {
+            int bodyStart = matcher.end();
+            int bodyEnd = matchingBrace(code, bodyStart);
+            String annotations = code.substring(previousEnd, matcher.start());
+            String header = code.substring(matcher.start(), bodyStart);
+            members.add(new Member(matcher.group(1), header.startsWith("public"),
+                    annotations.matches("(?s).*@Test\\b.*"), code.substring(bodyStart, bodyEnd)));
+            start = bodyEnd;
+            previousEnd = bodyEnd;
+        }
+        return members;
+    }
+
+    private static int matchingBrace(String code, int from) {
+        int depth = 1;
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return code.length();
+    }
+
+    /**
+     * 去掉注释并清空字符串和字符字面量的内容，避免其中的括号和关键字干扰解析 /
+     * Removes comments and blanks string and char literals, so braces and keywords inside them cannot confuse parsing
+     */
+    private static String stripCommentsAndStrings(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '/') {
+                while (i < source.length() && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < source.length() && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? source.length() : end + 2;
+                out.append(' ');
+            } else if (c == '"' || c == '\'') {
+                out.append(c).append(c);
+                i++;
+                while (i < source.length() && source.charAt(i) != c) {
+                    i += source.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static List<File> sources(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".java"));
+        return files == null ? new ArrayList<File>() : Arrays.asList(files);
+    }
+
+    private static String className(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - ".java".length());
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(false).start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line.trim());
+                }
+            }
+        }
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                throw new IOException("git命令执行失败/git command failed: " + command);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return lines;
+    }
+
+    /**
+     * 解析出的方法 / Parsed method
+     */
+    private static class Member {
+        private final String name;
+        private final boolean isPublic;
+        private final boolean isTest;
+        private final String body;
+
+        Member(String name, boolean isPublic, boolean isTest, String body) {
+            this.name = name;
+            this.isPublic = isPublic;
+            this.isTest = isTest;
+            this.body = body;
+        }
+    }
+}
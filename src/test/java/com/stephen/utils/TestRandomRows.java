@@ -0,0 +1,143 @@
+package com.stephen.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * 随机测试数据生成及缩减的单元测试 / Random Test Data Generation and Shrinking Unit Tests
+ * <p>
+ * 验证相同种子得到相同的数据序列、失败行缩减到局部最小的失败输入，以及失败上报只缩减真正失败的那一行<br>
+ * Verifies that the same seed yields the same sequence, that failing rows shrink to a locally minimal failing
+ * input, and that a failure report shrinks only the row that actually failed.
+ * </p>
+ */
+public class TestRandomRows {
+
+    //不做任何转换的物化函数 / Materializer without any transformation
+    private static final Function<Object[], Object[]> AS_IS = Object[]::clone;
+
+    /**
+     * 相同种子生成相同的数据序列 / The same seed generates the same sequence
+     */
+    @Test(groups = "Unit")
+    public void testSameSeedSameRows() {
+        Function<Random, Object[]> generator = random -> new Object[]{Integer.toString(random.nextInt(1000))};
+        List<Object[]> first = drain(new RandomRows(42L, 20, 0, generator, raw -> noCandidates(), AS_IS), null);
+        List<Object[]> second = drain(new RandomRows(42L, 20, 0, generator, raw -> noCandidates(), AS_IS), null);
+
+        Assert.assertEquals(first.size(), 20);
+        for (int i = 0; i < first.size(); i++) {
+            Assert.assertEquals(second.get(i), first.get(i));
+        }
+    }
+
+    /**
+     * 行过滤只去掉行，不改变其余行的取值 / The row filter drops rows without changing the values of the others
+     */
+    @Test(groups = "Unit")
+    public void testRowFilterKeepsSequence() {
+        Function<Random, Object[]> generator = random -> new Object[]{Integer.toString(random.nextInt(1000))};
+        List<Object[]> all = drain(new RandomRows(7L, 10, 0, generator, raw -> noCandidates(), AS_IS), null);
+        List<Object[]> even = drain(new RandomRows(7L, 10, 0, generator, raw -> noCandidates(), AS_IS,
+                rowIndex -> rowIndex % 2 == 0), null);
+
+        Assert.assertEquals(even.size(), 5);
+        for (int i = 0; i < even.size(); i++) {
+            Assert.assertEquals(even.get(i), all.get(i * 2));
+        }
+    }
+
+    /**
+     * 失败的注册输入缩减到局部最小的失败输入 / A failing registration input shrinks to a locally minimal failing input
+     *
+     * <p>
+     * 密码包含“!”时视为失败：账号应被清空，密码和确认密码一起缩短为“pa!”。<br>
+     * A password containing "!" fails: the username should be emptied and password and confirm password
+     * shortened together to "pa!".
+     * </p>
+     */
+    @Test(groups = "Unit")
+    public void testShrinkConvergesToMinimalFailure() {
+        RandomRows rows = new RandomRows(1L, 1, 50,
+                random -> new Object[]{"user", "pa!ssword", "pa!ssword"},
+                GeneratedTestData::shrinkRegisterInput, AS_IS);
+        List<Object[]> failures = drain(rows, row -> ((String) row[1]).contains("!"));
+
+        Object[] smallest = failures.get(0);
+        for (Object[] failure : failures) {
+            if (length(failure) < length(smallest)) {
+                smallest = failure;
+            }
+        }
+        Assert.assertEquals(smallest, new Object[]{"", "pa!", "pa!"});
+
+        //最小失败输入的所有缩减候选都应通过 / Every shrink candidate of the minimal failing input should pass
+        for (Object[] candidate : GeneratedTestData.shrinkRegisterInput(smallest)) {
+            Assert.assertFalse(((String) candidate[1]).contains("!"));
+        }
+    }
+
+    /**
+     * 参数值相同的两行中只缩减上报失败的那一行 / Of two rows with equal values only the reported one is shrunk
+     */
+    @Test(groups = "Unit")
+    public void testFailureMatchedByRowIdentity() {
+        final List<Object> shrunk = new ArrayList<>();
+        final int[] sequence = {0};
+        RandomRows rows = new RandomRows(1L, 2, 1,
+                random -> new Object[]{"raw" + sequence[0]++},
+                raw -> {
+                    shrunk.add(raw[0]);
+                    return Collections.singletonList(new Object[]{raw[0] + "-shrunk"});
+                },
+                //不同的原始输入得到相同的参数值 / Different raw inputs materialize to equal values
+                raw -> new Object[]{""});
+
+        //构造时已生成第一行的原始输入 / The first raw input is generated on construction
+        Object[] first = rows.next();
+        Object[] second = rows.next();
+        Assert.assertEquals(second, first);
+
+        //按参数值匹配时会找到后生成的那一行 / Matching by value would find the later row
+        RandomRows.reportFailure(first);
+        Assert.assertEquals(shrunk, Collections.<Object>singletonList("raw0"));
+        drain(rows, null);
+    }
+
+    /**
+     * 取出全部数据行，按需上报失败 / Drains all rows, reporting failures as needed
+     *
+     * @return 谓词为null时返回全部行，否则返回失败的行 / All rows when the predicate is null, otherwise the failing rows
+     */
+    private static List<Object[]> drain(RandomRows rows, Function<Object[], Boolean> fails) {
+        List<Object[]> result = new ArrayList<>();
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (fails == null) {
+                result.add(row);
+            } else if (fails.apply(row)) {
+                result.add(row);
+                RandomRows.reportFailure(row);
+            }
+        }
+        return result;
+    }
+
+    private static List<Object[]> noCandidates() {
+        return Collections.emptyList();
+    }
+
+    private static int length(Object[] row) {
+        int length = 0;
+        for (Object value : row) {
+            length += ((String) value).length();
+        }
+        return length;
+    }
+}